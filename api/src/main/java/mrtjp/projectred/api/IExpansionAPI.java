@@ -4,6 +4,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.neoforged.neoforge.capabilities.BlockCapability;
 
 import java.util.Set;
@@ -29,6 +30,16 @@ public interface IExpansionAPI {
      */
     void registerBlockMover(Block block, BlockMover mover);
 
+    /**
+     * Allows block entities of the given type to be moved by the default mover without being saved and
+     * re-loaded. The existing block entity instance is removed from its old position and added back at the new
+     * one, so it must not cache anything that depends on its position. Has no effect on blocks that have
+     * their own {@link BlockMover}.
+     *
+     * @param type The block entity type that can be relocated directly
+     */
+    void registerRelocatableBlockEntity(BlockEntityType<?> type);
+
     /**
      * Used to register a {@link FrameInteraction}, which is a class that
      * can be used to add frame-like properties to any block.
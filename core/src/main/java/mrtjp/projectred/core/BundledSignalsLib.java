@@ -215,4 +215,92 @@ public class BundledSignalsLib {
         return sb.toString();
     }
     //endregion
+
+    //region Packed signal utilities
+
+    // Bundled signals can be packed into 2 longs of 8 unsigned 8-bit lanes (colours 0-7 and 8-15), which
+    // allows comparing and merging all lanes of a word at once with the SWAR operations below.
+
+    private static final long LANE_MSB = 0x8080808080808080L;
+
+    // Expands each bit of an 8-bit colour mask into a full 0xFF lane
+    private static final long[] laneMaskTable = new long[256];
+
+    static {
+        for (int m = 0; m < 256; m++) {
+            long lanes = 0;
+            for (int i = 0; i < 8; i++) {
+                if ((m & 1 << i) != 0) lanes |= 0xFFL << (i * 8);
+            }
+            laneMaskTable[m] = lanes;
+        }
+    }
+
+    public static long packLanes(@Nullable byte[] signal, int offset) {
+        if (signal == null) return 0;
+        long packed = 0;
+        for (int i = 7; i >= 0; i--) {
+            packed = packed << 8 | (signal[offset + i] & 0xFF);
+        }
+        return packed;
+    }
+
+    public static void unpackLanes(long packed, byte[] signal, int offset) {
+        for (int i = 0; i < 8; i++) {
+            signal[offset + i] = (byte) (packed >>> (i * 8));
+        }
+    }
+
+    public static int getLane(long packed, int lane) {
+        return (int) (packed >>> (lane * 8)) & 0xFF;
+    }
+
+    /**
+     * @return Lanes set to 0xFF for every bit set in the low 8 bits of the colour mask
+     */
+    public static long expandLaneMask(int mask) {
+        return laneMaskTable[mask & 0xFF];
+    }
+
+    /**
+     * @return The high bit of each lane set where a is greater than or equal to b (unsigned)
+     */
+    public static long lanesGreaterOrEqual(long a, long b) {
+        long d = (a | LANE_MSB) - (b & ~LANE_MSB); // High bit set where low 7 bits of a >= low 7 bits of b
+        return ((a & ~b) | (~(a ^ b) & d)) & LANE_MSB;
+    }
+
+    /**
+     * @return The high bit of each lane set where the lane is non-zero
+     */
+    public static long lanesNonZero(long a) {
+        return (((a & ~LANE_MSB) + ~LANE_MSB) | a) & LANE_MSB;
+    }
+
+    /**
+     * Converts per-lane high bits (as returned by the lane comparisons) into full 0xFF lanes
+     */
+    public static long highBitsToLanes(long highBits) {
+        return (highBits >>> 7) * 0xFF;
+    }
+
+    /**
+     * Gathers per-lane high bits into an 8-bit colour mask
+     */
+    public static int highBitsToMask(long highBits) {
+        return (int) (((highBits >>> 7) * 0x0102040810204080L) >>> 56);
+    }
+
+    public static long maxLanes(long a, long b) {
+        long ge = highBitsToLanes(lanesGreaterOrEqual(a, b));
+        return (a & ge) | (b & ~ge);
+    }
+
+    /**
+     * @return Every lane decremented by 1, without going below 0
+     */
+    public static long diminishLanes(long a) {
+        return a - (lanesNonZero(a) >>> 7);
+    }
+    //endregion
 }
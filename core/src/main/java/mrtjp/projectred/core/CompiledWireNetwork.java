@@ -0,0 +1,400 @@
+package mrtjp.projectred.core;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import mrtjp.projectred.core.part.ICompiledPropagationPart;
+import mrtjp.projectred.core.part.IPropagationPart;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import static mrtjp.projectred.core.RedstonePropagator.*;
+
+/**
+ * A connected group of {@link ICompiledPropagationPart}s flattened into index-based adjacency arrays.
+ * <p>
+ * Instead of walking the wires one propagation task at a time, the whole network is solved at once.
+ * All signals are zeroed, each node calculates the signal it receives from outside the network, and
+ * a single breadth-first pass spreads those levels through the wires (losing 1 per hop). The result is
+ * the same steady state the RISING/DROPPING/analog-drop rules converge to.
+ * <p>
+ * Networks are compiled lazily and are discarded when any member reports a connection change
+ * (a FORCE propagation from {@code maskChangeEvent}), leaves the world, or when compiled parts are loaded
+ * in a chunk that any member is in or next to.
+ */
+public class CompiledWireNetwork {
+
+    // Networks by every chunk their members are in or next to. New links may appear there without a mask change
+    private static final IdentityHashMap<ResourceKey<Level>, Long2ObjectOpenHashMap<List<CompiledWireNetwork>>> SERVER_CHUNK_INDEX = new IdentityHashMap<>();
+
+    private final Level level;
+    private final ICompiledPropagationPart[] nodes;
+    private final IdentityHashMap<IPropagationPart, Integer> indices;
+    private final Solver solver;
+
+    // Chunks this network is indexed under, or null if not indexed (client side)
+    private @Nullable long[] chunks = null;
+
+    // Propagation parts outside the network that are fed by node i
+    private final int[] boundaryStart;
+    private final IPropagationPart[] boundary;
+
+    // Block neighbor changes emitted by node i, as packed BlockPos (source, neighbor) pairs
+    private final int[] neighborStart;
+    private final long[] neighborSources;
+    private final long[] neighborPositions;
+
+    // Solver scratch space
+    private final int[] oldSignals;
+    private final int[] signals;
+    private final boolean[] forced;
+
+    private boolean valid = true;
+    boolean dirty = false;
+
+    private CompiledWireNetwork(Level level, List<ICompiledPropagationPart> nodes, IdentityHashMap<IPropagationPart, Integer> indices, List<Capture> captures) {
+        this.level = level;
+        this.nodes = nodes.toArray(new ICompiledPropagationPart[0]);
+        this.indices = indices;
+
+        int n = this.nodes.length;
+        int[] adjacencyStart = new int[n + 1];
+        boundaryStart = new int[n + 1];
+        neighborStart = new int[n + 1];
+
+        int adjCount = 0, boundaryCount = 0, neighborCount = 0;
+        for (int i = 0; i < n; i++) {
+            Capture c = captures.get(i);
+            for (IPropagationPart t : c.targets) {
+                if (indices.containsKey(t)) adjCount++; else boundaryCount++;
+            }
+            neighborCount += c.neighborPositions.size();
+        }
+
+        int[] adjacency = new int[adjCount];
+        boundary = new IPropagationPart[boundaryCount];
+        neighborSources = new long[neighborCount];
+        neighborPositions = new long[neighborCount];
+
+        int a = 0, b = 0, p = 0;
+        for (int i = 0; i < n; i++) {
+            adjacencyStart[i] = a;
+            boundaryStart[i] = b;
+            neighborStart[i] = p;
+
+            Capture c = captures.get(i);
+            for (IPropagationPart t : c.targets) {
+                Integer idx = indices.get(t);
+                if (idx != null) {
+                    adjacency[a++] = idx;
+                } else {
+                    boundary[b++] = t;
+                }
+            }
+            for (int j = 0; j < c.neighborPositions.size(); j++) {
+                neighborSources[p] = c.neighborSources.get(j);
+                neighborPositions[p] = c.neighborPositions.get(j);
+                p++;
+            }
+        }
+        adjacencyStart[n] = a;
+        boundaryStart[n] = b;
+        neighborStart[n] = p;
+
+        solver = new Solver(adjacencyStart, adjacency);
+        oldSignals = new int[n];
+        signals = new int[n];
+        forced = new boolean[n];
+    }
+
+    //region Lifecycle
+    /**
+     * Called when a compiled part is loaded with its chunk. Drops all networks that are in or next to that chunk,
+     * since the new part may link to them.
+     */
+    public static void onCompiledPartLoaded(Level level, ChunkPos chunk) {
+        if (level.isClientSide) return;
+
+        Long2ObjectOpenHashMap<List<CompiledWireNetwork>> index = SERVER_CHUNK_INDEX.get(level.dimension());
+        if (index == null) return;
+
+        List<CompiledWireNetwork> networks = index.remove(chunk.toLong());
+        if (networks != null) {
+            for (CompiledWireNetwork network : networks) {
+                network.invalidate();
+            }
+        }
+    }
+
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide) {
+            SERVER_CHUNK_INDEX.remove(level.dimension());
+        }
+    }
+
+    public static void invalidate(ICompiledPropagationPart part) {
+        CompiledWireNetwork network = part.getPropagationNetwork();
+        if (network != null) {
+            network.invalidate();
+        }
+        part.setPropagationNetwork(null);
+    }
+
+    public static CompiledWireNetwork getOrCompile(ICompiledPropagationPart part) {
+        CompiledWireNetwork network = part.getPropagationNetwork();
+        if (network != null && network.isValid()) {
+            return network;
+        }
+        return compile(part);
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void invalidate() {
+        if (!valid) return;
+        valid = false;
+        for (ICompiledPropagationPart node : nodes) {
+            if (node.getPropagationNetwork() == this) {
+                node.setPropagationNetwork(null);
+            }
+        }
+        removeFromChunkIndex();
+    }
+
+    private void addToChunkIndex() {
+        // Wires link to blocks at most one step away on each horizontal axis, including around corners
+        LongOpenHashSet touched = new LongOpenHashSet();
+        for (ICompiledPropagationPart node : nodes) {
+            BlockPos pos = node.pos();
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    touched.add(ChunkPos.asLong((pos.getX() + dx) >> 4, (pos.getZ() + dz) >> 4));
+                }
+            }
+        }
+
+        chunks = touched.toLongArray();
+        Long2ObjectOpenHashMap<List<CompiledWireNetwork>> index = SERVER_CHUNK_INDEX.computeIfAbsent(level.dimension(), k -> new Long2ObjectOpenHashMap<>());
+        for (long chunk : chunks) {
+            index.computeIfAbsent(chunk, k -> new ArrayList<>()).add(this);
+        }
+    }
+
+    private void removeFromChunkIndex() {
+        if (chunks == null) return;
+
+        Long2ObjectOpenHashMap<List<CompiledWireNetwork>> index = SERVER_CHUNK_INDEX.get(level.dimension());
+        if (index != null) {
+            for (long chunk : chunks) {
+                List<CompiledWireNetwork> networks = index.get(chunk);
+                if (networks != null && networks.remove(this) && networks.isEmpty()) {
+                    index.remove(chunk);
+                }
+            }
+        }
+        chunks = null;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+    //endregion
+
+    //region Compilation
+    private static CompiledWireNetwork compile(ICompiledPropagationPart root) {
+        List<ICompiledPropagationPart> nodes = new ArrayList<>();
+        List<Capture> captures = new ArrayList<>();
+        IdentityHashMap<IPropagationPart, Integer> indices = new IdentityHashMap<>();
+
+        nodes.add(root);
+        indices.put(root, 0);
+
+        for (int i = 0; i < nodes.size(); i++) {
+            ICompiledPropagationPart node = nodes.get(i);
+
+            // Any network this node belonged to is now stale
+            CompiledWireNetwork old = node.getPropagationNetwork();
+            if (old != null) old.invalidate();
+
+            // Record exactly what a forward propagation from this node would touch
+            Capture capture = new Capture();
+            RedstonePropagator.captureForward(node, capture);
+            captures.add(capture);
+
+            for (IPropagationPart t : capture.targets) {
+                if (t instanceof ICompiledPropagationPart c && !indices.containsKey(c)) {
+                    indices.put(c, nodes.size());
+                    nodes.add(c);
+                }
+            }
+        }
+
+        CompiledWireNetwork network = new CompiledWireNetwork(root.level(), nodes, indices, captures);
+        for (ICompiledPropagationPart node : nodes) {
+            node.setPropagationNetwork(network);
+        }
+        if (!network.level.isClientSide) {
+            network.addToChunkIndex();
+        }
+        return network;
+    }
+
+    /**
+     * Collects the propagation targets and neighbor changes of a single node during compilation.
+     */
+    static class Capture {
+        final List<IPropagationPart> targets = new ArrayList<>();
+        final List<Long> neighborSources = new ArrayList<>();
+        final List<Long> neighborPositions = new ArrayList<>();
+
+        void addTarget(IPropagationPart part) {
+            targets.add(part);
+        }
+
+        void addNeighborChange(BlockPos sourcePos, BlockPos neighborPos) {
+            neighborSources.add(sourcePos.asLong());
+            neighborPositions.add(neighborPos.asLong());
+        }
+    }
+    //endregion
+
+    //region Solving
+    void markForced(ICompiledPropagationPart part) {
+        Integer idx = indices.get(part);
+        if (idx != null) forced[idx] = true;
+    }
+
+    /**
+     * Recalculates every signal in the network, then queues part changes, neighbor changes and
+     * propagation into the boundary parts for every node whose signal changed.
+     */
+    void solve() {
+        dirty = false;
+        int n = nodes.length;
+
+        for (int i = 0; i < n; i++) {
+            oldSignals[i] = nodes[i].getSignal();
+            nodes[i].setSignal(0);
+        }
+
+        // With all network signals at 0, calculateSignal only sees inputs from outside the network
+        for (int i = 0; i < n; i++) {
+            signals[i] = Math.min(255, Math.max(0, nodes[i].calculateSignal()));
+        }
+        solver.spread(signals);
+
+        for (int i = 0; i < n; i++) {
+            nodes[i].setSignal(signals[i]);
+        }
+
+        for (int i = 0; i < n; i++) {
+            int oldSignal = oldSignals[i];
+            int newSignal = signals[i];
+            if (newSignal != oldSignal) {
+                ICompiledPropagationPart node = nodes[i];
+                RedstonePropagator.addPartChange(node);
+                for (int p = neighborStart[i]; p < neighborStart[i + 1]; p++) {
+                    RedstonePropagator.addNeighborChange(level, BlockPos.of(neighborSources[p]), BlockPos.of(neighborPositions[p]));
+                }
+                propagateBoundary(i, newSignal < oldSignal ? DROPPING : RISING);
+            } else if (forced[i]) {
+                propagateBoundary(i, FORCED);
+            }
+            forced[i] = false;
+        }
+    }
+
+    private void propagateBoundary(int i, int mode) {
+        for (int b = boundaryStart[i]; b < boundaryStart[i + 1]; b++) {
+            RedstonePropagator.propagateTo(boundary[b], nodes[i], mode);
+        }
+    }
+    //endregion
+
+    /**
+     * Spreads signals over the links of a network, losing 1 per hop. Works on node indices only, so it does not
+     * depend on the parts it was compiled from.
+     */
+    static final class Solver {
+
+        // Links within the network: adjacency[adjacencyStart[i] .. adjacencyStart[i+1]) are nodes fed by node i
+        private final int[] adjacencyStart;
+        private final int[] adjacency;
+
+        // Scratch space
+        private final int[] externalSignals;
+        private final int[] bucketCounts = new int[256];
+        private final int[] sourceOrder;
+        private final int[] queue;
+
+        Solver(int[] adjacencyStart, int[] adjacency) {
+            this.adjacencyStart = adjacencyStart;
+            this.adjacency = adjacency;
+
+            int n = adjacencyStart.length - 1;
+            externalSignals = new int[n];
+            sourceOrder = new int[n];
+            queue = new int[n];
+        }
+
+        /**
+         * @param signals Signal each node receives from outside the network, between 0 and 255. Replaced with the
+         *                final signal of each node.
+         */
+        void spread(int[] signals) {
+            int n = externalSignals.length;
+
+            Arrays.fill(bucketCounts, 0);
+            for (int i = 0; i < n; i++) {
+                externalSignals[i] = signals[i];
+                bucketCounts[signals[i]]++;
+            }
+
+            // Counting sort externally powered nodes by descending signal
+            int sourceCount = n - bucketCounts[0];
+            for (int s = 255, acc = 0; s > 0; s--) {
+                int c = bucketCounts[s];
+                bucketCounts[s] = acc;
+                acc += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int s = signals[i];
+                if (s > 0) sourceOrder[bucketCounts[s]++] = i;
+            }
+
+            // Multi-source BFS. Sources and the queue are both non-increasing, so merging them by level
+            // expands every node exactly once at its final signal.
+            int src = 0, head = 0, tail = 0;
+            while (src < sourceCount || head < tail) {
+                int i;
+                if (head < tail && (src >= sourceCount || signals[queue[head]] >= signals[sourceOrder[src]])) {
+                    i = queue[head++];
+                } else {
+                    i = sourceOrder[src++];
+                    // Sources raised above their external signal were already queued at the higher level
+                    if (signals[i] != externalSignals[i]) continue;
+                }
+
+                int next = signals[i] - 1;
+                if (next <= 0) continue;
+                for (int e = adjacencyStart[i]; e < adjacencyStart[i + 1]; e++) {
+                    int j = adjacency[e];
+                    if (signals[j] < next) {
+                        signals[j] = next;
+                        queue[tail++] = j;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -17,9 +17,14 @@ public class Configurator {
     public static int  minTimerTicks = 4;
     public static boolean  unbreakableScrewdriver = false;
 
+    /* Wires */
+    public static boolean compiledWirePropagation = false;
+
     /* Machines */
     public static boolean enableDiamondBlockBreaker = false;
     public static int frameMoveLimit = 1024;
+    public static boolean incrementalTubeRoutes = true;
+    public static boolean stackTubePayloads = true;
 
     /* Rendering */
     public static boolean logicwires3D = true;
@@ -50,6 +55,7 @@ public class Configurator {
 
     /* Fabrication */
     public static int autoCompileTileLimit = 20;
+    public static int compileThreads = 1;
 
     public static void load() {
         ConfigFile configFile = new ConfigFile(MOD_ID).path(Paths.get("config/ProjectRed.cfg"));
@@ -75,9 +81,14 @@ public class Configurator {
         minTimerTicks = general.getValue("gate_min_timer_ticks").setDefaultInt(minTimerTicks).setComment("Minimum amount of ticks the timer gates can be set to (min 4)").getInt();
         unbreakableScrewdriver = general.getValue("infinite_screwdriver").setDefaultBoolean(unbreakableScrewdriver).setComment("If set to true, the basic screwdriver will not take damage").getBoolean();
 
+        ConfigCategory wires = config.getCategory("wires").setComment("Settings related to wire signal propagation");
+        compiledWirePropagation = wires.getValue("compiled_wire_propagation").setDefaultBoolean(compiledWirePropagation).setComment("If set to true, connected red alloy wire networks are cached and solved in a single pass instead of wire by wire. Speeds up very large wire buses").getBoolean();
+
         ConfigCategory machines = config.getCategory("machines").setComment("Settings related to machines and devices");
         enableDiamondBlockBreaker = machines.getValue("diamond_block_breaker").setDefaultBoolean(enableDiamondBlockBreaker).setComment("Allow the Diamond Block Breaker to be crafted").getBoolean();
         frameMoveLimit = machines.getValue("frame_move_limit").setDefaultInt(frameMoveLimit).setComment("Max blocks in a moving frame structure").getInt();
+        incrementalTubeRoutes = machines.getValue("incremental_tube_routes").setDefaultBoolean(incrementalTubeRoutes).setComment("Share route data across each tube network and repair it in place when tubes change, instead of re-pathfinding every tube").getBoolean();
+        stackTubePayloads = machines.getValue("stack_tube_payloads").setDefaultBoolean(stackTubePayloads).setComment("Merge identical items entering a pneumatic tube together into one stack that travels as a single payload").getBoolean();
 
         ConfigCategory rendering = config.getCategory("rendering").setComment("Client render settings");
         logicwires3D = rendering.getValue("gate_3d_wires").setDefaultBoolean(logicwires3D).setComment("If set to false, flat wire textures will be used for logic gates. Significant performance improvement").getBoolean();
@@ -100,6 +111,7 @@ public class Configurator {
 
         ConfigCategory fab = config.getCategory("fabrication").setComment("Settings for Fabrication circuit compilation");
         autoCompileTileLimit = fab.getValue("auto_compile_tile_limit").setDefaultInt(autoCompileTileLimit).setComment("Tile count before auto-compile becomes disallowed (-1 to always allow, 0 to never allow). Recommended to keep this very low on servers.").getInt();
+        compileThreads = fab.getValue("compile_threads").setDefaultInt(compileThreads).setComment("Number of background threads used to compile circuits. Set to 0 to compile on the server thread instead.").getInt();
     }
 
     private static void loadAndDeleteLegacyValues(ConfigCategory config) {
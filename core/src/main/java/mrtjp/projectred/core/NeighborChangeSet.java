@@ -0,0 +1,102 @@
+package mrtjp.projectred.core;
+
+import java.util.Arrays;
+
+/**
+ * Insertion-ordered set of block positions packed with {@link net.minecraft.core.BlockPos#asLong()}.
+ * Each position remembers the source position it was first added with. Backed by an open-addressing
+ * table over primitive arrays, so adding and clearing do not allocate once the set has warmed up.
+ */
+class NeighborChangeSet {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    // Entries in insertion order
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private long[] sources = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Hash table of entry index + 1 (0 is empty). Always at least twice the entry capacity
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getPosition(int i) {
+        return positions[i];
+    }
+
+    public long getSource(int i) {
+        return sources[i];
+    }
+
+    /**
+     * Adds a position to the set.
+     *
+     * @param pos    The packed position
+     * @param source The packed source position, only kept if pos was not already in the set
+     * @return True if the position was added
+     */
+    public boolean add(long pos, long source) {
+        int mask = table.length - 1;
+        int slot = hash(pos) & mask;
+        while (true) {
+            int e = table[slot];
+            if (e == 0) break;
+            if (positions[e - 1] == pos) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == positions.length) {
+            grow();
+            return add(pos, source);
+        }
+
+        positions[size] = pos;
+        sources[size] = source;
+        table[slot] = ++size;
+        return true;
+    }
+
+    public boolean contains(long pos) {
+        int mask = table.length - 1;
+        int slot = hash(pos) & mask;
+        while (true) {
+            int e = table[slot];
+            if (e == 0) return false;
+            if (positions[e - 1] == pos) return true;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    private void grow() {
+        positions = Arrays.copyOf(positions, positions.length << 1);
+        sources = Arrays.copyOf(sources, sources.length << 1);
+        table = new int[positions.length * 2];
+
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(positions[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int hash(long pos) {
+        long h = pos * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,158 @@
+package mrtjp.projectred.core;
+
+import javax.annotation.Nullable;
+
+import static mrtjp.projectred.core.BundledSignalsLib.*;
+
+/**
+ * Mutable 16-colour bundled signal stored as two words of 8-bit lanes. Colours 0-7 are held in
+ * {@link #getLow()} and colours 8-15 in {@link #getHigh()}, so merges and comparisons between signals
+ * take a handful of word operations instead of 16-iteration loops.
+ * <p>
+ * A byte[16] view is kept for the {@link mrtjp.projectred.api.IBundledEmitter} API. It is only
+ * re-unpacked after the signal changes, and must not be modified by callers.
+ */
+public class PackedBundledSignal {
+
+    private long low = 0;
+    private long high = 0;
+
+    private final byte[] bytes = new byte[16];
+    private boolean bytesValid = true;
+
+    //region Accessors
+    public long getLow() {
+        return low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public int get(int colour) {
+        return colour < 8 ? getLane(low, colour) : getLane(high, colour - 8);
+    }
+
+    public void set(long low, long high) {
+        if (this.low != low || this.high != high) {
+            this.low = low;
+            this.high = high;
+            bytesValid = false;
+        }
+    }
+
+    public void set(PackedBundledSignal signal) {
+        set(signal.low, signal.high);
+    }
+
+    public void set(@Nullable byte[] signal) {
+        set(packLanes(signal, 0), packLanes(signal, 8));
+    }
+
+    public void clear() {
+        set(0, 0);
+    }
+
+    /**
+     * @return Unpacked view of this signal. Do not modify.
+     */
+    public byte[] toByteArray() {
+        if (!bytesValid) {
+            unpackLanes(low, bytes, 0);
+            unpackLanes(high, bytes, 8);
+            bytesValid = true;
+        }
+        return bytes;
+    }
+    //endregion
+
+    //region Comparisons
+    public boolean isZero() {
+        return (low | high) == 0;
+    }
+
+    public boolean isZero(int mask) {
+        return (low & expandLaneMask(mask)) == 0 && (high & expandLaneMask(mask >>> 8)) == 0;
+    }
+
+    public boolean signalEquals(PackedBundledSignal other) {
+        return low == other.low && high == other.high;
+    }
+
+    /**
+     * @return 16-bit colour mask of all non-zero colours
+     */
+    public int getNonZeroMask() {
+        return highBitsToMask(lanesNonZero(low)) | highBitsToMask(lanesNonZero(high)) << 8;
+    }
+
+    /**
+     * @return 16-bit colour mask of all colours that are greater than the same colour in other
+     */
+    public int getGreaterMask(PackedBundledSignal other) {
+        // a > b is !(b >= a)
+        int ge = highBitsToMask(lanesGreaterOrEqual(other.low, low)) | highBitsToMask(lanesGreaterOrEqual(other.high, high)) << 8;
+        return ~ge & 0xFFFF;
+    }
+    //endregion
+
+    //region Mutators
+    public void raise(PackedBundledSignal source) {
+        set(maxLanes(low, source.low), maxLanes(high, source.high));
+    }
+
+    public void raise(@Nullable byte[] source) {
+        if (source == null) return;
+        set(maxLanes(low, packLanes(source, 0)), maxLanes(high, packLanes(source, 8)));
+    }
+
+    /**
+     * Raise every colour to the source signal minus 1. Used for signals received from other cables.
+     */
+    public void raiseDiminished(PackedBundledSignal source) {
+        set(maxLanes(low, diminishLanes(source.low)), maxLanes(high, diminishLanes(source.high)));
+    }
+
+    public void raiseColour(int colour, int value) {
+        if (value <= get(colour)) return;
+        int shift = (colour & 7) * 8;
+        long cleared = ~(0xFFL << shift);
+        long lane = (long) (value & 0xFF) << shift;
+        if (colour < 8) {
+            set(low & cleared | lane, high);
+        } else {
+            set(low, high & cleared | lane);
+        }
+    }
+
+    /**
+     * Zero all colours that are greater than the same colour in the threshold signal.
+     *
+     * @return True if any colour was dropped
+     */
+    public boolean dropSignalsGreaterThan(PackedBundledSignal threshold) {
+        // Keep lanes where threshold >= this
+        long keepLow = highBitsToLanes(lanesGreaterOrEqual(threshold.low, low));
+        long keepHigh = highBitsToLanes(lanesGreaterOrEqual(threshold.high, high));
+        long newLow = low & keepLow;
+        long newHigh = high & keepHigh;
+        boolean dropped = newLow != low || newHigh != high;
+        set(newLow, newHigh);
+        return dropped;
+    }
+
+    /**
+     * Copy all colours not set in the mask from the source signal.
+     */
+    public void applyChangeMask(PackedBundledSignal source, int mask) {
+        long keepLow = expandLaneMask(mask);
+        long keepHigh = expandLaneMask(mask >>> 8);
+        set(low & keepLow | source.low & ~keepLow, high & keepHigh | source.high & ~keepHigh);
+    }
+    //endregion
+
+    @Override
+    public String toString() {
+        return signalToString(toByteArray());
+    }
+}
@@ -21,6 +21,7 @@ import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.fml.loading.FMLEnvironment;
 import net.neoforged.neoforge.capabilities.RegisterCapabilitiesEvent;
+import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.common.data.BlockTagsProvider;
 import net.neoforged.neoforge.common.data.ExistingFileHelper;
 import net.neoforged.neoforge.data.event.GatherDataEvent;
@@ -78,6 +79,9 @@ public class ProjectRedCore {
         MENU_TYPES.register(modEventBus);
         PART_TYPES.register(modEventBus);
         CREATIVE_TABS.register(modEventBus);
+
+        // CompiledWireNetwork hooks
+        NeoForge.EVENT_BUS.addListener(CompiledWireNetwork::onLevelUnload);
     }
 
     public static ModContainer getContainer() {
@@ -0,0 +1,101 @@
+package mrtjp.projectred.core;
+
+import mrtjp.projectred.core.part.IPropagationPart;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * FIFO ring buffer of pending {@link IPropagationPart#updateAndPropagate} calls, stored as parallel
+ * (part, from, mode) arrays so queueing a propagation does not allocate. Buffers grow as needed
+ * and are kept between runs.
+ */
+class PropagationTaskQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private IPropagationPart[] parts = new IPropagationPart[INITIAL_CAPACITY];
+    private @Nullable IPropagationPart[] froms = new IPropagationPart[INITIAL_CAPACITY];
+    private int[] modes = new int[INITIAL_CAPACITY];
+
+    private int head = 0;
+    private int size = 0;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(IPropagationPart part, @Nullable IPropagationPart from, int mode) {
+        if (size == parts.length) {
+            grow();
+        }
+        int i = (head + size) & (parts.length - 1);
+        parts[i] = part;
+        froms[i] = from;
+        modes[i] = mode;
+        size++;
+    }
+
+    /**
+     * Removes the oldest task and runs it. Tasks added while it runs are appended to this queue.
+     */
+    public void runNext() {
+        int i = head;
+        IPropagationPart part = parts[i];
+        IPropagationPart from = froms[i];
+        int mode = modes[i];
+
+        parts[i] = null;
+        froms[i] = null;
+        head = (head + 1) & (parts.length - 1);
+        size--;
+
+        part.updateAndPropagate(from, mode);
+    }
+
+    /**
+     * Moves all tasks from the other queue to the end of this one.
+     */
+    public void transferFrom(PropagationTaskQueue other) {
+        while (!other.isEmpty()) {
+            int i = other.head;
+            add(other.parts[i], other.froms[i], other.modes[i]);
+            other.parts[i] = null;
+            other.froms[i] = null;
+            other.head = (other.head + 1) & (other.parts.length - 1);
+            other.size--;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(parts, null);
+        Arrays.fill(froms, null);
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int oldCapacity = parts.length;
+        IPropagationPart[] newParts = new IPropagationPart[oldCapacity << 1];
+        IPropagationPart[] newFroms = new IPropagationPart[oldCapacity << 1];
+        int[] newModes = new int[oldCapacity << 1];
+
+        // Unroll the ring so head starts at 0
+        int firstLen = oldCapacity - head;
+        System.arraycopy(parts, head, newParts, 0, firstLen);
+        System.arraycopy(parts, 0, newParts, firstLen, head);
+        System.arraycopy(froms, head, newFroms, 0, firstLen);
+        System.arraycopy(froms, 0, newFroms, firstLen, head);
+        System.arraycopy(modes, head, newModes, 0, firstLen);
+        System.arraycopy(modes, 0, newModes, firstLen, head);
+
+        parts = newParts;
+        froms = newFroms;
+        modes = newModes;
+        head = 0;
+    }
+}
@@ -4,6 +4,7 @@ import codechicken.multipart.api.part.MultiPart;
 import codechicken.multipart.block.TileMultipart;
 import codechicken.multipart.init.CBMultipartModContent;
 import com.google.common.collect.HashMultimap;
+import mrtjp.projectred.core.part.ICompiledPropagationPart;
 import mrtjp.projectred.core.part.IPropagationPart;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
@@ -39,6 +40,7 @@ public class RedstonePropagator {
     private static final LinkedList<PropagationRun> reusableRuns = new LinkedList<>();
     private static @Nullable PropagationRun currentRun = null;
     private static @Nullable PropagationRun finishingRun = null;
+    private static @Nullable CompiledWireNetwork.Capture currentCapture = null;
 
     private static boolean canRedwiresProvidePower = true;
     private static boolean canConnectRedwires = true;
@@ -67,15 +69,17 @@ public class RedstonePropagator {
     }
 
     public static void addNeighborChange(Level world, BlockPos sourcePos, BlockPos neighborPos) {
+        if (currentCapture != null) {
+            currentCapture.addNeighborChange(sourcePos, neighborPos);
+            return;
+        }
         assert currentRun != null;
-        currentRun.neighborChanges.put(world, neighborPos);
-
-        // Track source of change for first time a particular neighbor is changed
-        if (!currentRun.neighborChangeSources.containsKey(neighborPos))
-            currentRun.neighborChangeSources.put(neighborPos, sourcePos);
+        // Source of change is tracked for first time a particular neighbor is changed
+        currentRun.getNeighborChanges(world).add(neighborPos.asLong(), sourcePos.asLong());
     }
 
     public static void addPartChange(MultiPart part) {
+        if (currentCapture != null) return;
         assert currentRun != null;
         currentRun.partChanges.put(part.tile(), part);
     }
@@ -87,6 +91,10 @@ public class RedstonePropagator {
     }
 
     public static void propagateTo(IPropagationPart part, @Nullable IPropagationPart from, int mode) {
+        if (currentCapture != null) {
+            currentCapture.addTarget(part);
+            return;
+        }
         if (currentRun != null) {
             currentRun.add(part, from, mode);
             return;
@@ -105,6 +113,20 @@ public class RedstonePropagator {
         currentRun.addAnalogDrop(part);
     }
 
+    /**
+     * Runs a forward propagation of the given part without side effects, recording every part
+     * it would propagate to and every neighbor change it would cause.
+     */
+    static void captureForward(ICompiledPropagationPart part, CompiledWireNetwork.Capture capture) {
+        CompiledWireNetwork.Capture prevCapture = currentCapture;
+        currentCapture = capture;
+        try {
+            part.propagateForward(null, RISING);
+        } finally {
+            currentCapture = prevCapture;
+        }
+    }
+
     private static class PropagationRun {
 
         private @Nullable PropagationRun parent;
@@ -113,15 +135,20 @@ public class RedstonePropagator {
         private int recalcs = 0;
 
         HashMultimap<TileMultipart, MultiPart> partChanges = HashMultimap.create();
-        HashMultimap<Level, BlockPos> neighborChanges = HashMultimap.create();
-        HashMap<BlockPos, BlockPos> neighborChangeSources = new HashMap<>();
-        List<Runnable> propagationTasks = new LinkedList<>();
-        List<Runnable> analogDropPropagationTasks = new LinkedList<>();
+        List<Level> neighborChangeLevels = new ArrayList<>();
+        List<NeighborChangeSet> neighborChanges = new ArrayList<>();
+        PropagationTaskQueue propagationTasks = new PropagationTaskQueue();
+        PropagationTaskQueue analogDropPropagationTasks = new PropagationTaskQueue();
+        List<ICompiledPropagationPart> compiledTasks = new ArrayList<>();
+        List<ICompiledPropagationPart> forcedCompiledParts = new ArrayList<>();
+        List<CompiledWireNetwork> dirtyNetworks = new ArrayList<>();
 
         void clear() {
             partChanges.clear();
-            neighborChanges.clear();
-            neighborChangeSources.clear();
+            neighborChangeLevels.clear();
+            for (NeighborChangeSet set : neighborChanges) {
+                set.clear();
+            }
             count = 0;
             recalcs = 0;
             lastCaller = null;
@@ -137,22 +164,53 @@ public class RedstonePropagator {
 
         void runLoop() {
             do {
-                List<Runnable> pTasks = propagationTasks;
-                propagationTasks = new LinkedList<>();
+                while (!propagationTasks.isEmpty()) {
+                    propagationTasks.runNext();
+                }
 
-                pTasks.forEach(Runnable::run);
+                solveCompiledNetworks();
 
                 if (propagationTasks.isEmpty() && !analogDropPropagationTasks.isEmpty()) {
-                    propagationTasks = analogDropPropagationTasks;
-                    analogDropPropagationTasks = new LinkedList<>();
+                    propagationTasks.transferFrom(analogDropPropagationTasks);
+                }
+            } while (!propagationTasks.isEmpty() || !compiledTasks.isEmpty());
+        }
+
+        void solveCompiledNetworks() {
+            if (compiledTasks.isEmpty()) return;
+
+            // Connections changed. Drop stale networks before any are recompiled
+            for (ICompiledPropagationPart part : forcedCompiledParts) {
+                CompiledWireNetwork.invalidate(part);
+            }
+
+            for (ICompiledPropagationPart part : compiledTasks) {
+                CompiledWireNetwork network = CompiledWireNetwork.getOrCompile(part);
+                if (!network.dirty) {
+                    network.dirty = true;
+                    dirtyNetworks.add(network);
                 }
-            } while (!propagationTasks.isEmpty());
+            }
+
+            for (ICompiledPropagationPart part : forcedCompiledParts) {
+                CompiledWireNetwork.getOrCompile(part).markForced(part);
+            }
+
+            compiledTasks.clear();
+            forcedCompiledParts.clear();
+
+            // Boundary parts are queued as regular tasks and handled on the next pass of the run loop
+            for (CompiledWireNetwork network : dirtyNetworks) {
+                if (network.isValid()) network.solve();
+                network.dirty = false;
+            }
+            dirtyNetworks.clear();
         }
 
         void finishRun() {
             RedstonePropagator.currentRun = null;
 
-            if (partChanges.isEmpty() && neighborChanges.isEmpty()) {
+            if (partChanges.isEmpty() && neighborChangeLevels.isEmpty()) {
                 RedstonePropagator.finishingRun = parent;
                 clear();
                 return;
@@ -170,11 +228,11 @@ public class RedstonePropagator {
             }
 
             // Notify normal neighbor changes in bulk
-            for (Map.Entry<Level, Collection<BlockPos>> entry : neighborChanges.asMap().entrySet()) {
-                Level world = entry.getKey();
-                Collection<BlockPos> positions = entry.getValue();
-                for (BlockPos pos : positions) {
-                    world.neighborChanged(pos, CBMultipartModContent.MULTIPART_BLOCK.get(), neighborChangeSources.get(pos));
+            for (int i = 0; i < neighborChangeLevels.size(); i++) {
+                Level world = neighborChangeLevels.get(i);
+                NeighborChangeSet positions = neighborChanges.get(i);
+                for (int j = 0; j < positions.size(); j++) {
+                    world.neighborChanged(BlockPos.of(positions.getPosition(j)), CBMultipartModContent.MULTIPART_BLOCK.get(), BlockPos.of(positions.getSource(j)));
                 }
             }
 
@@ -183,15 +241,41 @@ public class RedstonePropagator {
         }
 
         void add(IPropagationPart part, @Nullable IPropagationPart from, int mode) {
+            if (Configurator.compiledWirePropagation && part instanceof ICompiledPropagationPart compiledPart) {
+                addCompiled(compiledPart, mode);
+                return;
+            }
             if (from != lastCaller) {
                 lastCaller = from;
                 count++;
             }
-            propagationTasks.add(() -> part.updateAndPropagate(from, mode));
+            propagationTasks.add(part, from, mode);
+        }
+
+        void addCompiled(ICompiledPropagationPart part, int mode) {
+            if (mode == FORCE) {
+                forcedCompiledParts.add(part);
+            }
+            compiledTasks.add(part);
         }
 
         void addAnalogDrop(IPropagationPart part) {
-            analogDropPropagationTasks.add(() -> part.updateAndPropagate(null, RISING));
+            analogDropPropagationTasks.add(part, null, RISING);
+        }
+
+        NeighborChangeSet getNeighborChanges(Level world) {
+            for (int i = 0; i < neighborChangeLevels.size(); i++) {
+                if (neighborChangeLevels.get(i) == world) {
+                    return neighborChanges.get(i);
+                }
+            }
+            // Sets are kept across runs, only the level list is cleared
+            int i = neighborChangeLevels.size();
+            neighborChangeLevels.add(world);
+            if (i == neighborChanges.size()) {
+                neighborChanges.add(new NeighborChangeSet());
+            }
+            return neighborChanges.get(i);
         }
     }
 
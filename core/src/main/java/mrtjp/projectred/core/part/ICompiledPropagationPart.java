@@ -0,0 +1,20 @@
+package mrtjp.projectred.core.part;
+
+import codechicken.multipart.api.part.MultiPart;
+import mrtjp.projectred.core.CompiledWireNetwork;
+
+import javax.annotation.Nullable;
+
+/**
+ * Marks a {@link IRedstonePropagationPart} as a plain diminishing wire that may be solved as part of a
+ * {@link CompiledWireNetwork} instead of through individual propagation tasks. Implementors must use the
+ * default {@link IRedstonePropagationPart#updateAndPropagate} rules, lose exactly 1 signal per hop to other
+ * compiled parts, and report every connection change through a FORCE propagation.
+ */
+public interface ICompiledPropagationPart extends IRedstonePropagationPart, MultiPart {
+
+    //region Trait variables
+    @Nullable CompiledWireNetwork getPropagationNetwork();
+    void setPropagationNetwork(@Nullable CompiledWireNetwork network);
+    //endregion
+}
@@ -2,6 +2,7 @@ package mrtjp.projectred.core.power;
 
 import net.minecraft.nbt.CompoundTag;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 public class PowerConductor {
@@ -17,6 +18,8 @@ public class PowerConductor {
 
     private final IPowerConductorSource parent;
 
+    @Nullable PowerNetwork network = null;
+
     public PowerConductor(IPowerConductorSource parent, double resistance, double capacitance) {
         this.parent = parent;
         this.resistance = resistance;
@@ -42,6 +45,18 @@ public class PowerConductor {
     }
     //endregion
 
+    public double getResistance() {
+        return resistance;
+    }
+
+    public double getCapacitance() {
+        return capacitance;
+    }
+
+    List<PowerConductor> getConnectedConductors() {
+        return parent.getConnectedConductors();
+    }
+
     public double getVoltage() {
         long t = parent.getTime();
         if (this.time != t) {
@@ -63,6 +78,12 @@ public class PowerConductor {
     }
 
     public void applyCurrent(double i) {
+        exchangeCurrent(i);
+        if (network != null) network.wake();
+    }
+
+    // Current exchanged within the network. Does not wake it
+    void exchangeCurrent(double i) {
         getVoltage();
         iCap += i;
     }
@@ -106,25 +127,22 @@ public class PowerConductor {
         applyCurrent(p < 0 ? -dI : dI);
     }
 
-    public void tick() {
-        // Force voltage re-calculation
-        getVoltage();
-
-        // Exchange current with all connected conductors
-        List<PowerConductor> conductors = parent.getConnectedConductors();
-        for (PowerConductor cond : conductors) {
-
-            // Easy way to make sure pairs of conductors only do current exchange once per tick:
-            // Only allow the one with higher voltage to do the exchange.
-            if (cond.getVoltage() > getVoltage())
-                continue;
-
-            double v = getVoltage() - cond.getVoltage();
-            double r = resistance + cond.resistance;
-            double i = v / r;
+    /**
+     * Marks this conductor's network for rebuild. Must be called when connections change or the
+     * conductor is removed from the world.
+     */
+    public void invalidateNetwork() {
+        if (network != null) {
+            network.invalidate();
+            network = null;
+        }
+    }
 
-            applyCurrent(-i);
-            cond.applyCurrent(i);
+    public void tick() {
+        // Whole network is stepped by whichever member ticks first. Dormant networks return immediately
+        if (network == null || !network.isValid()) {
+            network = PowerNetwork.build(this);
         }
+        network.tick(parent.getTime());
     }
 }
@@ -0,0 +1,236 @@
+package mrtjp.projectred.core.power;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A connected group of conductors, simulated together as one RC network.
+ * <p>
+ * Each tick, node voltages are solved with an implicit (backward Euler) step of
+ * <pre>
+ *     C_i * dV_i/dt = sum_j (V_j - V_i) / (R_i + R_j)
+ * </pre>
+ * so every conductor is coupled to the whole network in each step, rather than only to its direct neighbours,
+ * and the step stays stable for any resistance and capacitance. The result is applied to each conductor as
+ * current, which is integrated into its voltage the same way as any externally applied current. Topology is packed into arrays when the network is built, and
+ * the network is rebuilt when any member's connections change.
+ * <p>
+ * Once no connected pair of conductors is left out of balance for a while, the network goes dormant and ticks do
+ * nothing. This is based on the remaining imbalance rather than on how much voltages changed in a tick, since
+ * large capacitances can move slowly while still far from equilibrium. It is woken when
+ * current is applied to any member from outside the network (i.e. a machine or generator), and a rebuild
+ * always starts awake.
+ */
+public class PowerNetwork {
+
+    private static final double DT = 0.05D;
+    private static final int MAX_ITERATIONS = 64;
+    private static final double TOLERANCE = 1.0E-9D;
+
+    // Network sleeps once no two connected conductors differ by more than this for SLEEP_TICKS consecutive ticks
+    private static final double SLEEP_THRESHOLD = 1.0E-6D;
+    private static final int SLEEP_TICKS = 20;
+
+    private final PowerConductor[] members;
+
+    // Adjacency in compressed sparse row form
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final double[] edgeConductance;
+
+    private final double[] capacitancePerDt;
+    private final double[] diagonal;
+    private final double[] voltage;
+    private final double[] solved;
+
+    private boolean valid = true;
+    private long time = -1;
+
+    private boolean dormant = false;
+    private int quietTicks = 0;
+
+    private PowerNetwork(PowerConductor[] members, int[] edgeStart, int[] edgeTarget, double[] edgeConductance) {
+        this.members = members;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeConductance = edgeConductance;
+
+        int n = members.length;
+        capacitancePerDt = new double[n];
+        diagonal = new double[n];
+        voltage = new double[n];
+        solved = new double[n];
+        for (int i = 0; i < n; i++) {
+            capacitancePerDt[i] = members[i].getCapacitance() / DT;
+            double d = capacitancePerDt[i];
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                d += edgeConductance[e];
+            }
+            diagonal[i] = d;
+        }
+    }
+
+    /**
+     * Builds the network containing the given conductor, and assigns it to all members.
+     */
+    static PowerNetwork build(PowerConductor root) {
+        Reference2IntOpenHashMap<PowerConductor> index = new Reference2IntOpenHashMap<>();
+        index.defaultReturnValue(-1);
+        List<PowerConductor> members = new ArrayList<>();
+        LongOpenHashSet edges = new LongOpenHashSet();
+
+        index.put(root, 0);
+        members.add(root);
+        for (int i = 0; i < members.size(); i++) {
+            for (PowerConductor c : members.get(i).getConnectedConductors()) {
+                if (c == members.get(i)) continue;
+                int j = index.getInt(c);
+                if (j == -1) {
+                    j = members.size();
+                    index.put(c, j);
+                    members.add(c);
+                }
+                // Connections are treated as symmetric, even if only listed by one side
+                edges.add(packEdge(Math.min(i, j), Math.max(i, j)));
+            }
+        }
+
+        int n = members.size();
+        int[] degree = new int[n];
+        for (long edge : edges) {
+            degree[(int) (edge >>> 32)]++;
+            degree[(int) edge]++;
+        }
+
+        int[] edgeStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            edgeStart[i + 1] = edgeStart[i] + degree[i];
+        }
+
+        int[] fill = new int[n];
+        int[] edgeTarget = new int[edgeStart[n]];
+        double[] edgeConductance = new double[edgeStart[n]];
+        for (long edge : edges) {
+            int a = (int) (edge >>> 32);
+            int b = (int) edge;
+            double g = 1 / (members.get(a).getResistance() + members.get(b).getResistance());
+            int ea = edgeStart[a] + fill[a]++;
+            int eb = edgeStart[b] + fill[b]++;
+            edgeTarget[ea] = b;
+            edgeConductance[ea] = g;
+            edgeTarget[eb] = a;
+            edgeConductance[eb] = g;
+        }
+
+        PowerNetwork network = new PowerNetwork(members.toArray(new PowerConductor[0]), edgeStart, edgeTarget, edgeConductance);
+        for (PowerConductor c : network.members) {
+            // Members may have been absorbed from another still-valid network
+            if (c.network != null && c.network != network) c.network.invalidate();
+            c.network = network;
+        }
+        return network;
+    }
+
+    private static long packEdge(int a, int b) {
+        return (long) a << 32 | b & 0xFFFFFFFFL;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    public int size() {
+        return members.length;
+    }
+
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    void wake() {
+        dormant = false;
+        quietTicks = 0;
+    }
+
+    /**
+     * Advances the network by one tick. Only the first call for a given time does anything.
+     */
+    void tick(long t) {
+        if (dormant || time == t) return;
+        time = t;
+
+        int n = members.length;
+        for (int i = 0; i < n; i++) {
+            voltage[i] = members[i].getVoltage(); // Integrates last tick's current
+            solved[i] = voltage[i];
+        }
+
+        if (edgeTarget.length == 0) {
+            // Nothing to exchange. Only external current can change anything
+            dormant = true;
+            return;
+        }
+
+        solve();
+
+        // Exchanged currents must sum to zero. Spread any residual left by the iterative solve by capacitance
+        double residual = 0;
+        double totalCapacitancePerDt = 0;
+        for (int i = 0; i < n; i++) {
+            residual += capacitancePerDt[i] * (solved[i] - voltage[i]);
+            totalCapacitancePerDt += capacitancePerDt[i];
+        }
+        double correction = residual / totalCapacitancePerDt;
+
+        // Apply as current, so voltage moves to the solved value on the next tick
+        for (int i = 0; i < n; i++) {
+            members[i].exchangeCurrent(capacitancePerDt[i] * (solved[i] - voltage[i] - correction));
+        }
+
+        if (maxImbalance() >= SLEEP_THRESHOLD) {
+            quietTicks = 0;
+        } else if (++quietTicks >= SLEEP_TICKS) {
+            dormant = true;
+        }
+    }
+
+    /**
+     * @return Largest voltage difference across any connection, after this tick's solve
+     */
+    private double maxImbalance() {
+        double max = 0;
+        for (int i = 0; i < members.length; i++) {
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                max = Math.max(max, Math.abs(solved[i] - solved[edgeTarget[e]]));
+            }
+        }
+        return max;
+    }
+
+    private void solve() {
+        // Gauss-Seidel. Capacitance terms make the system strictly diagonally dominant, so this converges quickly
+        int n = members.length;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            double maxDelta = 0;
+            double maxV = 1;
+            for (int i = 0; i < n; i++) {
+                double sum = capacitancePerDt[i] * voltage[i];
+                for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                    sum += edgeConductance[e] * solved[edgeTarget[e]];
+                }
+                double v = sum / diagonal[i];
+                maxDelta = Math.max(maxDelta, Math.abs(v - solved[i]));
+                maxV = Math.max(maxV, Math.abs(v));
+                solved[i] = v;
+            }
+            if (maxDelta <= TOLERANCE * maxV) break;
+        }
+    }
+}
@@ -19,18 +19,31 @@ public abstract class BasePoweredBlockEntity extends BaseConnectableBlockEntity
 
     protected void invalidateConductorCache() {
         cacheInvalid = true;
+        invalidateConductorNetworks();
+    }
+
+    private void invalidateConductorNetworks() {
+        for (int s = 0; s < 6; s++) {
+            getConductor(s).invalidateNetwork();
+        }
     }
 
     @Override
     public void onMaskChanged() {
         super.onMaskChanged();
-        cacheInvalid = true;
+        invalidateConductorCache();
     }
 
     @Override
     public void onNeighborBlockChanged(BlockPos neighborPos) {
         super.onNeighborBlockChanged(neighborPos);
-        cacheInvalid = true;
+        cacheInvalid = true; // Network only rebuilt on actual connection changes
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        invalidateConductorNetworks();
     }
 
     @Override
@@ -0,0 +1,375 @@
+package mrtjp.projectred.core;
+
+import mrtjp.projectred.core.part.IPropagationPart;
+import mrtjp.projectred.core.part.IRedstonePropagationPart;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import static mrtjp.projectred.core.RedstonePropagator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the compiled network solver reaches the same signals as the legacy task based propagation, and
+ * that both settle where every wire's calculated signal holds.
+ */
+public class CompiledWireNetworkTest {
+
+    private static class TestWire implements IRedstonePropagationPart {
+
+        private final int colour;
+        private final List<TestWire> links = new ArrayList<>();
+        private @Nullable TestCable cable;
+
+        private int input = 0;
+        private int signal = 0;
+
+        TestWire(int colour) {
+            this.colour = colour;
+        }
+
+        @Override
+        public int getSignal() {
+            return signal;
+        }
+
+        @Override
+        public void setSignal(int signal) {
+            this.signal = signal;
+        }
+
+        @Override
+        public int calculateSignal() {
+            int s = input;
+            for (TestWire w : links) {
+                s = Math.max(s, w.signal - 1);
+            }
+            if (cable != null) {
+                s = Math.max(s, cable.lanes[colour] - 1);
+            }
+            return s;
+        }
+
+        @Override
+        public void propagateForward(@Nullable IPropagationPart prev, int mode) {
+            for (TestWire w : links) {
+                if (w != prev) RedstonePropagator.propagateTo(w, this, mode);
+            }
+            if (cable != null && cable != prev) {
+                RedstonePropagator.propagateTo(cable, this, mode);
+            }
+        }
+
+        @Override
+        public void propagateBackward(@Nullable IPropagationPart prev, int mode) {
+            if (prev != null) RedstonePropagator.propagateTo(prev, this, mode);
+        }
+
+        @Override
+        public void onSignalUpdate() { }
+    }
+
+    /**
+     * Bundled cable that carries one lane per insulated colour. Uses the same drop and rise rules as bundled
+     * cable parts, including only updating the lane of the wire that triggered the update, and is never compiled.
+     */
+    private static class TestCable implements IPropagationPart {
+
+        private final List<TestWire> wires = new ArrayList<>();
+        private final int[] lanes = new int[16];
+        private int mask = 0xFFFF;
+
+        @Override
+        public void updateAndPropagate(@Nullable IPropagationPart prev, int mode) {
+            mask = prev instanceof TestWire w ? 1 << w.colour : 0xFFFF;
+
+            int[] next = new int[16];
+            boolean zero = true;
+            for (int c = 0; c < 16; c++) {
+                if ((mask & 1 << c) != 0) {
+                    zero &= lanes[c] == 0;
+                } else {
+                    next[c] = lanes[c];
+                }
+            }
+            if (mode == DROPPING && zero) return;
+
+            for (TestWire w : wires) {
+                if ((mask & 1 << w.colour) != 0) {
+                    next[w.colour] = Math.max(next[w.colour], w.signal - 1);
+                }
+            }
+
+            boolean dropped = false;
+            boolean remaining = false;
+            for (int c = 0; c < 16; c++) {
+                if (next[c] < lanes[c]) {
+                    lanes[c] = 0;
+                    dropped = true;
+                }
+                remaining |= (mask & 1 << c) != 0 && next[c] > 0;
+            }
+
+            if (dropped) {
+                if (remaining) {
+                    RedstonePropagator.propagateAnalogDrop(this);
+                }
+                propagate(prev, DROPPING);
+            } else if (!Arrays.equals(lanes, next)) {
+                System.arraycopy(next, 0, lanes, 0, 16);
+                propagate(mode == DROPPING ? null : prev, RISING);
+            } else if (mode == FORCE) {
+                propagate(prev, FORCED);
+            } else if (mode == DROPPING && prev != null) {
+                RedstonePropagator.propagateTo(prev, this, RISING);
+            }
+
+            mask = 0xFFFF;
+        }
+
+        private void propagate(@Nullable IPropagationPart prev, int mode) {
+            for (TestWire w : wires) {
+                if (w != prev && (mask & 1 << w.colour) != 0) RedstonePropagator.propagateTo(w, this, mode);
+            }
+        }
+
+        @Override
+        public void onSignalUpdate() { }
+    }
+
+    /**
+     * Solves wires the way the run loop does with compiled propagation on: each group of linked wires is one
+     * compiled network, and the cable between them is a boundary part that is recalculated between solves.
+     */
+    private static class CompiledModel {
+
+        private final List<TestWire[]> networks = new ArrayList<>();
+        private final List<CompiledWireNetwork.Solver> solvers = new ArrayList<>();
+        private final @Nullable TestCable cable;
+        private final int[] lanes = new int[16];
+        private final IdentityHashMap<TestWire, Integer> signals = new IdentityHashMap<>();
+
+        CompiledModel(List<TestWire> wires, @Nullable TestCable cable) {
+            this.cable = cable;
+
+            List<TestWire> seen = new ArrayList<>();
+            for (TestWire root : wires) {
+                if (seen.contains(root)) continue;
+
+                List<TestWire> members = new ArrayList<>();
+                members.add(root);
+                seen.add(root);
+                for (int i = 0; i < members.size(); i++) {
+                    for (TestWire w : members.get(i).links) {
+                        if (!seen.contains(w)) {
+                            seen.add(w);
+                            members.add(w);
+                        }
+                    }
+                }
+
+                int[] start = new int[members.size() + 1];
+                List<Integer> adjacency = new ArrayList<>();
+                for (int i = 0; i < members.size(); i++) {
+                    start[i] = adjacency.size();
+                    for (TestWire w : members.get(i).links) {
+                        adjacency.add(members.indexOf(w));
+                    }
+                }
+                start[members.size()] = adjacency.size();
+
+                networks.add(members.toArray(new TestWire[0]));
+                solvers.add(new CompiledWireNetwork.Solver(start, adjacency.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+
+        int signal(TestWire wire) {
+            return signals.get(wire);
+        }
+
+        void solve() {
+            boolean changed;
+            do {
+                for (int n = 0; n < networks.size(); n++) {
+                    TestWire[] members = networks.get(n);
+                    int[] s = new int[members.length];
+                    for (int i = 0; i < members.length; i++) {
+                        TestWire w = members[i];
+                        s[i] = w.input;
+                        if (w.cable != null) s[i] = Math.max(s[i], lanes[w.colour] - 1);
+                    }
+                    solvers.get(n).spread(s);
+                    for (int i = 0; i < members.length; i++) {
+                        signals.put(members[i], s[i]);
+                    }
+                }
+
+                changed = false;
+                if (cable != null) {
+                    int[] next = new int[16];
+                    for (TestWire w : cable.wires) {
+                        next[w.colour] = Math.max(next[w.colour], signal(w) - 1);
+                    }
+                    if (!Arrays.equals(next, lanes)) {
+                        System.arraycopy(next, 0, lanes, 0, 16);
+                        changed = true;
+                    }
+                }
+            } while (changed);
+        }
+    }
+
+    private static void link(TestWire a, TestWire b) {
+        if (a == b || a.links.contains(b)) return;
+        a.links.add(b);
+        b.links.add(a);
+    }
+
+    private static int randomInput(Random rand) {
+        return switch (rand.nextInt(4)) {
+            case 0, 1 -> 0;
+            case 2 -> 255;
+            default -> 1 + rand.nextInt(254);
+        };
+    }
+
+    /**
+     * Finds the signals all wires settle at, by raising every wire to what it calculates until nothing changes.
+     */
+    private static IdentityHashMap<TestWire, Integer> settle(List<TestWire> wires, @Nullable TestCable cable) {
+        IdentityHashMap<TestWire, Integer> settled = new IdentityHashMap<>();
+        int[] lanes = new int[16];
+        for (TestWire w : wires) {
+            settled.put(w, w.input);
+        }
+
+        boolean changed;
+        do {
+            changed = false;
+            for (TestWire w : wires) {
+                int s = settled.get(w);
+                for (TestWire link : w.links) {
+                    s = Math.max(s, settled.get(link) - 1);
+                }
+                if (w.cable != null) {
+                    s = Math.max(s, lanes[w.colour] - 1);
+                }
+                if (s != settled.get(w)) {
+                    settled.put(w, s);
+                    changed = true;
+                }
+            }
+            if (cable != null) {
+                for (TestWire w : cable.wires) {
+                    if (settled.get(w) - 1 > lanes[w.colour]) {
+                        lanes[w.colour] = settled.get(w) - 1;
+                        changed = true;
+                    }
+                }
+            }
+        } while (changed);
+        return settled;
+    }
+
+    /**
+     * Changes random inputs, propagating each change the legacy way, and checks the compiled solve reaches the
+     * settled signals. Legacy propagation is only exact on plain wire trees. With loops, or through a cable,
+     * a rise is never sent back to the part that caused it, so legacy may stop short but never overshoots.
+     */
+    private static void checkRandomInputs(Random rand, List<TestWire> wires, @Nullable TestCable cable, int steps, boolean exact) {
+        CompiledModel compiled = new CompiledModel(wires, cable);
+        for (int step = 0; step < steps; step++) {
+            int changes = 1 + rand.nextInt(4);
+            for (int c = 0; c < changes; c++) {
+                TestWire w = wires.get(rand.nextInt(wires.size()));
+                w.input = randomInput(rand);
+                RedstonePropagator.propagateTo(w, RISING);
+            }
+
+            compiled.solve();
+            IdentityHashMap<TestWire, Integer> settled = settle(wires, cable);
+            for (int i = 0; i < wires.size(); i++) {
+                TestWire w = wires.get(i);
+                assertEquals((int) settled.get(w), compiled.signal(w), "Wire " + i + " at step " + step);
+                if (exact) {
+                    assertEquals(w.signal, compiled.signal(w), "Wire " + i + " at step " + step);
+                } else {
+                    assertTrue(w.signal <= compiled.signal(w), "Wire " + i + " at step " + step);
+                }
+            }
+        }
+    }
+
+    private static List<TestWire> randomTree(Random rand, int size) {
+        List<TestWire> wires = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            TestWire w = new TestWire(0);
+            if (i > 0) link(w, wires.get(rand.nextInt(i)));
+            wires.add(w);
+        }
+        return wires;
+    }
+
+    @Test
+    public void testSolverMatchesLegacyOnWires() {
+        Random rand = new Random(0);
+        for (int n = 0; n < 20; n++) {
+            checkRandomInputs(rand, randomTree(rand, 2 + rand.nextInt(80)), null, 50, true);
+        }
+    }
+
+    @Test
+    public void testSolverSettlesWireLoops() {
+        Random rand = new Random(3);
+        for (int n = 0; n < 20; n++) {
+            // Extra links on top of the tree form loops
+            int size = 2 + rand.nextInt(80);
+            List<TestWire> wires = randomTree(rand, size);
+            for (int i = 0; i < size / 4; i++) {
+                link(wires.get(rand.nextInt(size)), wires.get(rand.nextInt(size)));
+            }
+            checkRandomInputs(rand, wires, null, 50, false);
+        }
+    }
+
+    @Test
+    public void testSolverMatchesLegacyOnLongChain() {
+        // Longer than the signal range, so far ends must fade to 0
+        List<TestWire> wires = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            TestWire w = new TestWire(0);
+            if (i > 0) link(w, wires.get(i - 1));
+            wires.add(w);
+        }
+        checkRandomInputs(new Random(1), wires, null, 50, true);
+    }
+
+    @Test
+    public void testSolverSettlesThroughBundledCable() {
+        Random rand = new Random(2);
+        TestCable cable = new TestCable();
+        List<TestWire> wires = new ArrayList<>();
+
+        // Two separate insulated wire runs per colour, joined only through the cable
+        for (int colour = 0; colour < 16; colour++) {
+            for (int run = 0; run < 2; run++) {
+                int start = wires.size();
+                int length = 1 + rand.nextInt(12);
+                for (int i = 0; i < length; i++) {
+                    TestWire w = new TestWire(colour);
+                    if (i > 0) link(w, wires.get(start + rand.nextInt(i)));
+                    wires.add(w);
+                }
+                TestWire end = wires.get(start + rand.nextInt(length));
+                end.cable = cable;
+                cable.wires.add(end);
+            }
+        }
+        checkRandomInputs(rand, wires, cable, 200, false);
+    }
+}
@@ -0,0 +1,108 @@
+package mrtjp.projectred.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBundledSignalTest {
+
+    private static byte[] randomSignal(Random rand) {
+        byte[] signal = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            // Bias towards edge values to hit lane boundaries
+            signal[i] = switch (rand.nextInt(4)) {
+                case 0 -> 0;
+                case 1 -> (byte) 255;
+                default -> (byte) rand.nextInt(256);
+            };
+        }
+        return signal;
+    }
+
+    private static PackedBundledSignal pack(byte[] signal) {
+        PackedBundledSignal packed = new PackedBundledSignal();
+        packed.set(signal);
+        return packed;
+    }
+
+    @Test
+    public void testPackRoundTrip() {
+        Random rand = new Random(0);
+        for (int n = 0; n < 1000; n++) {
+            byte[] signal = randomSignal(rand);
+            PackedBundledSignal packed = pack(signal);
+            assertArrayEquals(signal, packed.toByteArray());
+            for (int i = 0; i < 16; i++) {
+                assertEquals(signal[i] & 0xFF, packed.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRaise() {
+        Random rand = new Random(1);
+        for (int n = 0; n < 1000; n++) {
+            byte[] a = randomSignal(rand);
+            byte[] b = randomSignal(rand);
+
+            PackedBundledSignal raised = pack(a);
+            raised.raise(pack(b));
+
+            PackedBundledSignal diminished = pack(a);
+            diminished.raiseDiminished(pack(b));
+
+            for (int i = 0; i < 16; i++) {
+                assertEquals(Math.max(a[i] & 0xFF, b[i] & 0xFF), raised.get(i));
+                assertEquals(Math.max(a[i] & 0xFF, (b[i] & 0xFF) - 1), diminished.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testMasks() {
+        Random rand = new Random(2);
+        for (int n = 0; n < 1000; n++) {
+            byte[] a = randomSignal(rand);
+            byte[] b = randomSignal(rand);
+            int mask = rand.nextInt(0x10000);
+
+            int nonZero = 0;
+            int greater = 0;
+            boolean zeroInMask = true;
+            for (int i = 0; i < 16; i++) {
+                if (a[i] != 0) nonZero |= 1 << i;
+                if ((a[i] & 0xFF) > (b[i] & 0xFF)) greater |= 1 << i;
+                if ((mask & 1 << i) != 0 && a[i] != 0) zeroInMask = false;
+            }
+
+            assertEquals(nonZero, pack(a).getNonZeroMask());
+            assertEquals(greater, pack(a).getGreaterMask(pack(b)));
+            assertEquals(zeroInMask, pack(a).isZero(mask));
+        }
+    }
+
+    @Test
+    public void testDropAndChangeMask() {
+        Random rand = new Random(3);
+        for (int n = 0; n < 1000; n++) {
+            byte[] a = randomSignal(rand);
+            byte[] threshold = randomSignal(rand);
+            int mask = rand.nextInt(0x10000);
+
+            // Matches legacy BundledSignalsLib byte[] operations
+            byte[] expectedDrop = a.clone();
+            boolean expectedDropped = BundledSignalsLib.dropSignalsLessThan(expectedDrop, threshold);
+            PackedBundledSignal dropped = pack(a);
+            assertEquals(expectedDropped, dropped.dropSignalsGreaterThan(pack(threshold)));
+            assertArrayEquals(expectedDrop, dropped.toByteArray());
+
+            byte[] expectedApplied = a.clone();
+            BundledSignalsLib.applyChangeMask(threshold, expectedApplied, mask);
+            PackedBundledSignal applied = pack(a);
+            applied.applyChangeMask(pack(threshold), mask);
+            assertArrayEquals(expectedApplied, applied.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package mrtjp.projectred.core;
+
+import com.google.common.collect.HashMultimap;
+import mrtjp.projectred.core.part.IPropagationPart;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the task and neighbor change bookkeeping of a propagation run through a straight wire bus.
+ * Each simulated wire queues its successor and records the same 6 neighbor changes a red alloy wire does.
+ * <p>
+ * Run {@link #main} and compare the {@code gc.alloc.rate.norm} column for bytes allocated per propagation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropagationQueueBenchmark {
+
+    @Param({ "256", "2048" })
+    public int wireCount;
+
+    private FakeWire[] wires;
+
+    // Legacy structures
+    private List<Runnable> legacyTasks = new LinkedList<>();
+    private final HashMultimap<Object, BlockPos> legacyNeighborChanges = HashMultimap.create();
+    private final HashMap<BlockPos, BlockPos> legacyNeighborSources = new HashMap<>();
+
+    // Current structures
+    private final PropagationTaskQueue tasks = new PropagationTaskQueue();
+    private final NeighborChangeSet neighborChanges = new NeighborChangeSet();
+
+    private final Object level = new Object();
+    private boolean legacyMode;
+
+    @Setup
+    public void setup() {
+        wires = new FakeWire[wireCount];
+        for (int i = 0; i < wireCount; i++) {
+            wires[i] = new FakeWire(i, new BlockPos(i, 64, 0));
+        }
+    }
+
+    @Benchmark
+    public void legacyRun(Blackhole bh) {
+        legacyMode = true;
+        legacyAdd(wires[0], null, RedstonePropagator.RISING);
+        do {
+            List<Runnable> pTasks = legacyTasks;
+            legacyTasks = new LinkedList<>();
+            pTasks.forEach(Runnable::run);
+        } while (!legacyTasks.isEmpty());
+
+        bh.consume(legacyNeighborChanges.size());
+        legacyNeighborChanges.clear();
+        legacyNeighborSources.clear();
+    }
+
+    @Benchmark
+    public void queueRun(Blackhole bh) {
+        legacyMode = false;
+        tasks.add(wires[0], null, RedstonePropagator.RISING);
+        while (!tasks.isEmpty()) {
+            tasks.runNext();
+        }
+
+        bh.consume(neighborChanges.size());
+        neighborChanges.clear();
+    }
+
+    private void legacyAdd(IPropagationPart part, @Nullable IPropagationPart from, int mode) {
+        legacyTasks.add(() -> part.updateAndPropagate(from, mode));
+    }
+
+    private void addNeighborChange(BlockPos source, BlockPos neighbor) {
+        if (legacyMode) {
+            legacyNeighborChanges.put(level, neighbor);
+            if (!legacyNeighborSources.containsKey(neighbor)) {
+                legacyNeighborSources.put(neighbor, source);
+            }
+        } else {
+            neighborChanges.add(neighbor.asLong(), source.asLong());
+        }
+    }
+
+    private class FakeWire implements IPropagationPart {
+
+        private final int index;
+        private final BlockPos pos;
+        private final BlockPos[] neighbors = new BlockPos[6];
+
+        FakeWire(int index, BlockPos pos) {
+            this.index = index;
+            this.pos = pos;
+            for (int s = 0; s < 6; s++) {
+                neighbors[s] = pos.relative(Direction.values()[s]);
+            }
+        }
+
+        @Override
+        public void updateAndPropagate(@Nullable IPropagationPart prev, int mode) {
+            for (BlockPos n : neighbors) {
+                addNeighborChange(pos, n);
+            }
+            if (index + 1 < wires.length) {
+                if (legacyMode) {
+                    legacyAdd(wires[index + 1], this, mode);
+                } else {
+                    tasks.add(wires[index + 1], this, mode);
+                }
+            }
+        }
+
+        @Override
+        public void onSignalUpdate() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PropagationQueueBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
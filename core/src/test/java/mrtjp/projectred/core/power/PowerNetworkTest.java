@@ -0,0 +1,168 @@
+package mrtjp.projectred.core.power;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PowerNetworkTest {
+
+    private static class TestSource implements IPowerConductorSource {
+
+        private final long[] time;
+        private final List<PowerConductor> connected = new ArrayList<>();
+
+        TestSource(long[] time) {
+            this.time = time;
+        }
+
+        @Override
+        public long getTime() {
+            return time[0];
+        }
+
+        @Override
+        public List<PowerConductor> getConnectedConductors() {
+            return connected;
+        }
+    }
+
+    private static PowerConductor[] buildChain(long[] time, int length) {
+        return buildChain(time, length, 16);
+    }
+
+    private static PowerConductor[] buildChain(long[] time, int length, double capacitance) {
+        TestSource[] sources = new TestSource[length];
+        PowerConductor[] chain = new PowerConductor[length];
+        for (int i = 0; i < length; i++) {
+            sources[i] = new TestSource(time);
+            chain[i] = new PowerConductor(sources[i], 0.01, capacitance);
+        }
+        for (int i = 1; i < length; i++) {
+            sources[i - 1].connected.add(chain[i]);
+            sources[i].connected.add(chain[i - 1]);
+        }
+        return chain;
+    }
+
+    private static double totalCharge(PowerConductor[] chain) {
+        double q = 0;
+        for (PowerConductor c : chain) {
+            q += c.getCapacitance() * c.getVoltage();
+        }
+        return q;
+    }
+
+    private static void tickAll(long[] time, PowerConductor[] chain) {
+        time[0]++;
+        for (PowerConductor c : chain) {
+            c.tick();
+        }
+    }
+
+    @Test
+    public void testChargeConserved() {
+        long[] time = { 0 };
+        PowerConductor[] chain = buildChain(time, 50);
+
+        chain[0].applyCurrent(10000);
+        time[0]++;
+        double q0 = totalCharge(chain);
+        for (int t = 0; t < 200; t++) {
+            tickAll(time, chain);
+            assertEquals(q0, totalCharge(chain), 1.0E-6 * q0);
+        }
+    }
+
+    @Test
+    public void testChainEqualizes() {
+        long[] time = { 0 };
+        PowerConductor[] chain = buildChain(time, 20);
+
+        chain[0].applyCurrent(10000);
+        for (int t = 0; t < 4000; t++) {
+            tickAll(time, chain);
+        }
+
+        double v = chain[0].getVoltage();
+        assertTrue(v > 0);
+        for (PowerConductor c : chain) {
+            assertEquals(v, c.getVoltage(), 1.0E-3 * v);
+        }
+    }
+
+    @Test
+    public void testSteppedOncePerTick() {
+        long[] time = { 0 };
+        PowerConductor[] chain = buildChain(time, 2);
+
+        chain[0].applyCurrent(1000);
+        time[0]++;
+        chain[0].tick();
+        chain[0].tick();
+        chain[1].tick();
+
+        // All members share one network and exchanged current balances out
+        assertSame(chain[0].network, chain[1].network);
+        assertEquals(0, chain[0].getCurrent() + chain[1].getCurrent(), 1.0E-9);
+    }
+
+    @Test
+    public void testRebuildOnInvalidate() {
+        long[] time = { 0 };
+        PowerConductor[] chain = buildChain(time, 3);
+
+        tickAll(time, chain);
+        PowerNetwork network = chain[0].network;
+        assertNotNull(network);
+        assertEquals(3, network.size());
+
+        chain[1].invalidateNetwork();
+        assertFalse(network.isValid());
+
+        tickAll(time, chain);
+        assertNotSame(network, chain[0].network);
+        assertSame(chain[0].network, chain[2].network);
+    }
+
+    @Test
+    public void testSleepsWhenSettled() {
+        long[] time = { 0 };
+        PowerConductor[] chain = buildChain(time, 10);
+
+        chain[0].applyCurrent(10000);
+        tickAll(time, chain);
+        for (int t = 0; t < 4000 && !chain[0].network.isDormant(); t++) {
+            tickAll(time, chain);
+        }
+        assertTrue(chain[0].network.isDormant());
+
+        // Dormant network does not move charge (after current from its last step is integrated)
+        tickAll(time, chain);
+        double v = chain[9].getVoltage();
+        tickAll(time, chain);
+        assertEquals(v, chain[9].getVoltage(), 0);
+
+        // External current wakes it
+        chain[0].applyCurrent(1000);
+        assertFalse(chain[0].network.isDormant());
+        tickAll(time, chain);
+        tickAll(time, chain);
+        assertTrue(chain[9].getVoltage() > v);
+    }
+
+    @Test
+    public void testStaysAwakeWhileImbalanced() {
+        long[] time = { 0 };
+        PowerConductor[] chain = buildChain(time, 10, 1.0E8);
+
+        // Large capacitance makes voltages change very little per tick, though the chain is far from balanced
+        chain[0].applyCurrent(1000000);
+        for (int t = 0; t < 200; t++) {
+            tickAll(time, chain);
+        }
+        assertFalse(chain[0].network.isDormant());
+    }
+}
@@ -0,0 +1,151 @@
+package mrtjp.projectred.expansion;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Collects the silent block writes of a movement so they can be applied together.
+ * <p>
+ * Writes are grouped by chunk section, so each section is locked once. Heightmaps are recomputed once per
+ * touched column, after all writes to it. Block entities being relocated are added back only after the blocks
+ * under them are in place.
+ * <p>
+ * Deferred writes are not visible to reads until {@link #flush()}. Movers must therefore only read positions
+ * that have not been written yet in the same batch, which holds for the blocks in a row as they move one at a
+ * time towards the head.
+ */
+public class BlockMoveBatch {
+
+    private static final Heightmap.Types[] HEIGHTMAP_TYPES = {
+            Heightmap.Types.MOTION_BLOCKING,
+            Heightmap.Types.MOTION_BLOCKING_NO_LEAVES,
+            Heightmap.Types.OCEAN_FLOOR,
+            Heightmap.Types.WORLD_SURFACE
+    };
+
+    private final Level level;
+
+    // Last write to a position wins
+    private final Long2ObjectOpenHashMap<BlockState> writes = new Long2ObjectOpenHashMap<>();
+    private final List<BlockEntity> blockEntities = new ArrayList<>();
+
+    public BlockMoveBatch(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Sets the block state without block entity creation and state onRemove/onPlace notifications.
+     */
+    public void setBlockState(BlockPos pos, BlockState state) {
+        writes.put(pos.asLong(), state);
+    }
+
+    /**
+     * Adds an existing block entity to the chunk at its current position, once its block has been written.
+     */
+    public void addBlockEntity(BlockEntity be) {
+        blockEntities.add(be);
+    }
+
+    public void flush() {
+        if (!writes.isEmpty()) {
+            writeBlocks();
+            writes.clear();
+        }
+
+        for (BlockEntity be : blockEntities) {
+            level.getChunkAt(be.getBlockPos()).addAndRegisterBlockEntity(be);
+        }
+        blockEntities.clear();
+    }
+
+    private void writeBlocks() {
+        // Group writes by section
+        Long2ObjectOpenHashMap<LongArrayList> sections = new Long2ObjectOpenHashMap<>();
+        for (long pos : writes.keySet()) {
+            long section = SectionPos.blockToSection(pos);
+            sections.computeIfAbsent(section, k -> new LongArrayList()).add(pos);
+        }
+
+        // Highest changed y of each column, per chunk. Column index is (x << 4 | z) within the chunk
+        Long2ObjectOpenHashMap<Int2IntOpenHashMap> columns = new Long2ObjectOpenHashMap<>();
+
+        for (Long2ObjectMap.Entry<LongArrayList> e : sections.long2ObjectEntrySet()) {
+            long sectionKey = e.getLongKey();
+            LevelChunk chunk = level.getChunk(SectionPos.x(sectionKey), SectionPos.z(sectionKey));
+            LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(SectionPos.y(sectionKey)));
+            Int2IntOpenHashMap chunkColumns = null;
+
+            section.acquire();
+            try {
+                for (long pos : e.getValue()) {
+                    BlockState state = writes.get(pos);
+                    if (section.hasOnlyAir() && state.isAir()) continue;
+
+                    int x = BlockPos.getX(pos) & 15;
+                    int y = BlockPos.getY(pos);
+                    int z = BlockPos.getZ(pos) & 15;
+                    BlockState oldState = section.setBlockState(x, y & 15, z, state, false);
+                    if (oldState == state) continue;
+
+                    if (chunkColumns == null) {
+                        chunkColumns = columns.computeIfAbsent(chunk.getPos().toLong(), k -> {
+                            Int2IntOpenHashMap m = new Int2IntOpenHashMap();
+                            m.defaultReturnValue(Integer.MIN_VALUE);
+                            return m;
+                        });
+                    }
+                    int column = x << 4 | z;
+                    chunkColumns.put(column, Math.max(chunkColumns.get(column), y));
+                }
+            } finally {
+                section.release();
+            }
+
+            chunk.setUnsaved(true);
+        }
+
+        for (Long2ObjectMap.Entry<Int2IntOpenHashMap> e : columns.long2ObjectEntrySet()) {
+            LevelChunk chunk = level.getChunk(ChunkPos.getX(e.getLongKey()), ChunkPos.getZ(e.getLongKey()));
+            for (Int2IntMap.Entry c : e.getValue().int2IntEntrySet()) {
+                updateHeightmaps(chunk, c.getIntKey() >> 4, c.getIntKey() & 15, c.getIntValue());
+            }
+        }
+    }
+
+    private static void updateHeightmaps(LevelChunk chunk, int x, int z, int maxChangedY) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (Heightmap.Types type : HEIGHTMAP_TYPES) {
+            Heightmap heightmap = chunk.getOrCreateHeightmapUnprimed(type);
+            int top = heightmap.getFirstAvailable(x, z) - 1;
+
+            // Highest blocking block is untouched, so height cannot have changed
+            if (maxChangedY < top) continue;
+
+            // Everything above both the old top and the highest change is still non-blocking
+            Predicate<BlockState> isOpaque = type.isOpaque();
+            int y = Math.max(top, maxChangedY);
+            while (y >= chunk.getMinBuildHeight() && !isOpaque.test(chunk.getBlockState(pos.set(x, y, z)))) {
+                y--;
+            }
+            heightmap.setHeight(x, z, y + 1);
+        }
+    }
+}
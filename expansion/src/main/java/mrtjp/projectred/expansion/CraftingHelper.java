@@ -1,23 +1,25 @@
 package mrtjp.projectred.expansion;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import mrtjp.projectred.core.inventory.BaseContainer;
 import mrtjp.projectred.lib.InventoryLib;
 import net.covers1624.quack.util.LazyValue;
 import net.minecraft.core.NonNullList;
 import net.minecraft.world.Container;
-import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.CraftingContainer;
 import net.minecraft.world.inventory.ResultContainer;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.CraftingRecipe;
 import net.minecraft.world.item.crafting.RecipeHolder;
-import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.common.CommonHooks;
 
 import javax.annotation.Nullable;
-import java.util.function.Predicate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class CraftingHelper {
 
@@ -87,15 +89,14 @@ public class CraftingHelper {
     }
 
     public void loadRecipe() {
-        recipe = inputSource.getWorld().getRecipeManager()
-                .getRecipeFor(RecipeType.CRAFTING, craftingInventory, inputSource.getWorld()).orElse(null);
+        recipe = CraftingRecipeCache.getRecipeFor(craftingInventory, inputSource.getWorld()).orElse(null);
 
         craftResultInventory.setItem(0, recipe == null ? ItemStack.EMPTY : recipe.value().assemble(craftingInventory, inputSource.getWorld().registryAccess()));
     }
 
     public void loadOutput() {
 
-        result = craftFromStorageOrMatrix(true);
+        result = craftFromStorageOrMatrix();
     }
 
     public boolean hasRecipe() {
@@ -121,12 +122,14 @@ public class CraftingHelper {
     public boolean onCraftedByPlayer(Player player, boolean leaveRemainingInGrid) {
         if (recipe == null) return false;
 
-        CraftingResult result = craftFromStorageOrMatrix(false);
+        CraftingResult result = craftFromStorageOrMatrix();
 
         if (!result.isCraftable()) {
             return false;
         }
 
+        result.consumeIngredients();
+
         // Re-obtain remaining items in case "setCraftingPlayer" changes remaining items
         CommonHooks.setCraftingPlayer(player);
         NonNullList<ItemStack> remainingStacks = recipe.value().getRemainingItems(craftingInventory); // Skip re-searching for recipe, should be ok
@@ -156,31 +159,37 @@ public class CraftingHelper {
 
     public boolean onCraftedIntoStorage() {
 
-        CraftingResult result = craftFromStorage(false);
+        CraftingResult result = craftFromStorage();
 
         if (!result.isCraftable() || !result.canFitResultsIntoStorage()) return false;
 
+        result.consumeIngredients();
+
         NonNullList<ItemStack> allResults = result.getCopyOfAllResults();
         InventoryLib.injectAllItemStacks(inputSource.getStorage(), allResults, true);
 
         return true;
     }
 
-    private CraftingResult craftFromStorageOrMatrix(boolean simulate) {
-        CraftingResult result = craftFromStorage(simulate);
+    private CraftingResult craftFromStorageOrMatrix() {
+        CraftingResult result = craftFromStorage();
         if (!result.isCraftable() && inputSource.canConsumeFromCraftingMatrix()) {
             // TODO maybe merge the missingIngredientMasks of these two results?
-            result = craftFromSource(inputSource.getCraftingMatrix(), simulate);
+            result = craftFromSource(inputSource.getCraftingMatrix());
         }
         // TODO Hybrid craft that consumes from both sources instead of one or the other?
         return result;
     }
 
-    private CraftingResult craftFromStorage(boolean simulate) {
-        return craftFromSource(inputSource.getStorage(), simulate);
+    private CraftingResult craftFromStorage() {
+        return craftFromSource(inputSource.getStorage());
     }
 
-    private CraftingResult craftFromSource(Container source, boolean simulate) {
+    /**
+     * Simulates the craft against the given source. Nothing is removed from the source until
+     * {@link CraftingResult#consumeIngredients()} is called on the result.
+     */
+    private CraftingResult craftFromSource(Container source) {
 
         if (recipe == null) return CraftingResult.EMPTY;
 
@@ -189,32 +198,15 @@ public class CraftingHelper {
         ItemStack result = recipe.value().assemble(craftingInventory, inputSource.getWorld().registryAccess());
         if (result.isEmpty()) return CraftingResult.EMPTY;
 
-        if (simulate) {
-            source = copyInventory(source);
-        }
+        StorageIndex index = new StorageIndex(source);
 
         // Try to consume all ingredients
         int missingIngredientMask = 0;
         for (int i = 0; i < 9; i++) {
-            final int slot = i;
-            ItemStack previousInput = craftingInventory.getItem(slot);
+            ItemStack previousInput = craftingInventory.getItem(i);
             if (previousInput.isEmpty()) continue;
 
-            boolean isPresent = consumeIngredient(source, 0, input -> {
-                // Candidate ingredient must be same item
-                if (!ItemStack.isSameItem(input, previousInput)) return false;
-
-                // Recipe must still function with new input swapped in
-                craftingInventory.setItem(slot, input);
-                boolean canStillCraft =
-                        recipe.value().matches(craftingInventory, inputSource.getWorld()) &&
-                        ItemStack.isSameItem(result, recipe.value().assemble(craftingInventory, inputSource.getWorld().registryAccess()));
-                craftingInventory.setItem(slot, previousInput);
-
-                return canStillCraft;
-            });
-
-            if (!isPresent) {
+            if (!consumeIngredient(index, i, previousInput, result)) {
                 missingIngredientMask |= 1 << i;
             }
         }
@@ -223,33 +215,193 @@ public class CraftingHelper {
             return CraftingResult.missingIngredients(missingIngredientMask);
         }
 
-        return new CraftingResult(result, recipe.value().getRemainingItems(craftingInventory), 0, simulate ? source : copyInventory(source));
+        return new CraftingResult(result, recipe.value().getRemainingItems(craftingInventory), 0, index);
     }
 
-    private boolean consumeIngredient(Container storage, int startIndex, Predicate<ItemStack> matchFunc) {
+    private boolean consumeIngredient(StorageIndex index, int gridSlot, ItemStack previousInput, ItemStack result) {
 
-        int i = startIndex;
-        do {
-            ItemStack stack = storage.getItem(i);
-            if (!stack.isEmpty() && matchFunc.test(stack)) {
-                ItemStack taken = storage.removeItem(i, 1);
-                if (!taken.isEmpty()) {
-                    return true;
-                }
+        // Candidate ingredient must be same item
+        IntArrayList slots = index.getSlots(previousInput.getItem());
+        if (slots == null) return false;
+
+        // Each distinct candidate stack is checked against the recipe at most once
+        index.clearMatches();
+        for (int i = 0; i < slots.size(); i++) {
+            int slot = slots.getInt(i);
+            if (index.getCount(slot) == 0) continue;
+
+            int group = index.getGroup(slot);
+            int match = index.getMatch(group);
+            if (match == StorageIndex.MATCH_UNKNOWN) {
+                boolean canStillCraft = canCraftWithInput(gridSlot, previousInput, index.getStack(slot), result);
+                index.setMatch(group, canStillCraft);
+                match = canStillCraft ? StorageIndex.MATCH_YES : StorageIndex.MATCH_NO;
+            }
+
+            if (match == StorageIndex.MATCH_YES) {
+                index.take(slot);
+                return true;
             }
-            i = (i + 1) % storage.getContainerSize();
-        } while (i != startIndex);
+        }
 
         return false;
     }
 
-    private static Container copyInventory(Container inventory) {
-        //TODO create more accurate copy
-        SimpleContainer copy = new SimpleContainer(inventory.getContainerSize());
-        for (int i = 0; i < inventory.getContainerSize(); i++) {
-            copy.setItem(i, inventory.getItem(i).copy());
+    private boolean canCraftWithInput(int gridSlot, ItemStack previousInput, ItemStack input, ItemStack result) {
+        assert recipe != null;
+
+        // Identical to what is already in the grid, which is known to craft the result
+        if (ItemStack.isSameItemSameTags(input, previousInput)) return true;
+
+        // Recipe must still function with new input swapped in
+        craftingInventory.setItem(gridSlot, input);
+        boolean canStillCraft =
+                recipe.value().matches(craftingInventory, inputSource.getWorld()) &&
+                ItemStack.isSameItem(result, recipe.value().assemble(craftingInventory, inputSource.getWorld().registryAccess()));
+        craftingInventory.setItem(gridSlot, previousInput);
+
+        return canStillCraft;
+    }
+
+    /**
+     * Count-based view of a source inventory, indexed by item.
+     * <p>
+     * Stacks are referenced, not copied, so the source must not change while the index is in use. Slots holding
+     * the same item and tags share a group, which is used to evaluate the recipe once per distinct stack.
+     */
+    private static final class StorageIndex {
+
+        private static final byte MATCH_UNKNOWN = 0;
+        private static final byte MATCH_YES = 1;
+        private static final byte MATCH_NO = 2;
+
+        private final Container source;
+        private final ItemStack[] stacks;
+        private final int[] initialCounts;
+        private final int[] counts;
+        private final int[] groups;
+        private final byte[] matches;
+
+        // Slots of each item, in ascending order
+        private final Map<Item, IntArrayList> slotsByItem = new HashMap<>();
+
+        public StorageIndex(Container source) {
+            this.source = source;
+
+            int size = source.getContainerSize();
+            stacks = new ItemStack[size];
+            initialCounts = new int[size];
+            counts = new int[size];
+            groups = new int[size];
+
+            int groupCount = 0;
+            for (int i = 0; i < size; i++) {
+                ItemStack stack = source.getItem(i);
+                stacks[i] = stack;
+                initialCounts[i] = counts[i] = stack.getCount();
+                if (stack.isEmpty()) continue;
+
+                IntArrayList slots = slotsByItem.computeIfAbsent(stack.getItem(), k -> new IntArrayList());
+                groups[i] = -1;
+                for (int j = 0; j < slots.size(); j++) {
+                    int other = slots.getInt(j);
+                    if (ItemStack.isSameItemSameTags(stack, stacks[other])) {
+                        groups[i] = groups[other];
+                        break;
+                    }
+                }
+                if (groups[i] == -1) {
+                    groups[i] = groupCount++;
+                }
+                slots.add(i);
+            }
+
+            matches = new byte[groupCount];
+        }
+
+        public @Nullable IntArrayList getSlots(Item item) {
+            return slotsByItem.get(item);
+        }
+
+        public ItemStack getStack(int slot) {
+            return stacks[slot];
+        }
+
+        public int getCount(int slot) {
+            return counts[slot];
+        }
+
+        public int getGroup(int slot) {
+            return groups[slot];
+        }
+
+        public int getMatch(int group) {
+            return matches[group];
+        }
+
+        public void setMatch(int group, boolean match) {
+            matches[group] = match ? MATCH_YES : MATCH_NO;
+        }
+
+        public void clearMatches() {
+            Arrays.fill(matches, MATCH_UNKNOWN);
+        }
+
+        public void take(int slot) {
+            counts[slot]--;
+        }
+
+        /**
+         * Removes everything taken so far from the source inventory.
+         */
+        public void commit() {
+            for (int i = 0; i < stacks.length; i++) {
+                int taken = initialCounts[i] - counts[i];
+                if (taken > 0) {
+                    source.removeItem(i, taken);
+                }
+            }
+        }
+
+        /**
+         * Checks if all given stacks can be inserted into the remaining inventory. Mirrors
+         * {@link InventoryLib#injectAllItemStacks(Container, NonNullList, boolean)} in reverse order.
+         */
+        public boolean canAcceptAll(NonNullList<ItemStack> toInsert) {
+            ItemStack[] slotStacks = stacks.clone();
+            int[] slotCounts = counts.clone();
+
+            for (ItemStack stack : toInsert) {
+                int remaining = stack.getCount();
+                if (remaining <= 0) continue;
+
+                // First merge into existing stacks, then fill empty slots
+                remaining = merge(slotStacks, slotCounts, stack, remaining);
+                for (int i = slotStacks.length - 1; i >= 0 && remaining > 0; i--) {
+                    if (slotCounts[i] == 0) {
+                        slotStacks[i] = stack;
+                        slotCounts[i] = remaining;
+                        remaining = 0;
+                    }
+                }
+
+                if (remaining > 0) return false;
+            }
+
+            return true;
+        }
+
+        private int merge(ItemStack[] slotStacks, int[] slotCounts, ItemStack stack, int remaining) {
+            for (int i = slotStacks.length - 1; i >= 0 && remaining > 0; i--) {
+                if (slotCounts[i] == 0 || !InventoryLib.areStackable(stack, slotStacks[i])) continue;
+
+                int maxStackSize = Math.min(source.getMaxStackSize(), slotStacks[i].getMaxStackSize());
+                int amountToInsert = Math.min(Math.max(0, maxStackSize - slotCounts[i]), remaining);
+                slotCounts[i] += amountToInsert;
+                remaining -= amountToInsert;
+            }
+            return remaining;
         }
-        return copy;
     }
 
     private static final class CraftingResult {
@@ -259,11 +411,11 @@ public class CraftingHelper {
         public final ItemStack outputStack;
         public final NonNullList<ItemStack> remainingItems;
         public final int missingIngredientMask;
-        public final @Nullable Container remainingStorage;
+        public final @Nullable StorageIndex remainingStorage;
 
         private final LazyValue<Boolean> canStorageAcceptResults = new LazyValue<>(this::canFitResultsIntoStorage);
 
-        public CraftingResult(ItemStack outputStack, NonNullList<ItemStack> remainingItems, int missingIngredientMask, @Nullable Container remainingStorage) {
+        public CraftingResult(ItemStack outputStack, NonNullList<ItemStack> remainingItems, int missingIngredientMask, @Nullable StorageIndex remainingStorage) {
             this.outputStack = outputStack;
             this.remainingItems = remainingItems;
             this.missingIngredientMask = missingIngredientMask;
@@ -278,6 +430,11 @@ public class CraftingHelper {
             return canStorageAcceptResults.get();
         }
 
+        public void consumeIngredients() {
+            assert remainingStorage != null;
+            remainingStorage.commit();
+        }
+
         public NonNullList<ItemStack> getCopyOfAllResults() {
 
             NonNullList<ItemStack> allResults = NonNullList.withSize(remainingItems.size() + 1, ItemStack.EMPTY);
@@ -292,8 +449,14 @@ public class CraftingHelper {
 
         private boolean canFitResultsIntoStorage() {
             assert remainingStorage != null;
-            Container storage = copyInventory(remainingStorage); // Don't mutate original list
-            return InventoryLib.injectAllItemStacks(storage, getCopyOfAllResults(), true);
+            // Counted against what would remain after ingredients are taken. Neither inventory is copied
+            NonNullList<ItemStack> allResults = NonNullList.withSize(remainingItems.size() + 1, ItemStack.EMPTY);
+            int i = 0;
+            allResults.set(i++, outputStack);
+            for (ItemStack stack : remainingItems) {
+                allResults.set(i++, stack);
+            }
+            return remainingStorage.canAcceptAll(allResults);
         }
 
         public static CraftingResult missingIngredients(int missingIngredientMask) {
@@ -0,0 +1,127 @@
+package mrtjp.projectred.expansion;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraft.world.inventory.CraftingContainer;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.CraftingRecipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.Level;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.api.distmarker.OnlyIn;
+import net.neoforged.neoforge.client.event.RecipesUpdatedEvent;
+import net.neoforged.neoforge.event.AddReloadListenerEvent;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Shared cache of crafting recipe lookups, keyed by the contents of the crafting grid.
+ * <p>
+ * Auto crafters repeatedly reload the same few plans as they cycle, and each lookup would otherwise search
+ * the entire recipe manager. Misses are cached too. There is one cache per logical side, and each is cleared
+ * when recipes are reloaded or the recipe manager is replaced.
+ */
+public class CraftingRecipeCache {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final CraftingRecipeCache SERVER_INSTANCE = new CraftingRecipeCache();
+    private static final CraftingRecipeCache CLIENT_INSTANCE = new CraftingRecipeCache();
+
+    private final Map<GridKey, Optional<RecipeHolder<CraftingRecipe>>> entries = new HashMap<>();
+    private WeakReference<RecipeManager> owner = new WeakReference<>(null);
+
+    public static Optional<RecipeHolder<CraftingRecipe>> getRecipeFor(CraftingContainer grid, Level level) {
+        CraftingRecipeCache cache = level.isClientSide ? CLIENT_INSTANCE : SERVER_INSTANCE;
+        return cache.get(grid, level);
+    }
+
+    //region Events
+    public static void onAddReloadListeners(AddReloadListenerEvent event) {
+        event.addListener((ResourceManagerReloadListener) resourceManager -> SERVER_INSTANCE.clear());
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    public static void onRecipesUpdated(RecipesUpdatedEvent event) {
+        CLIENT_INSTANCE.clear();
+    }
+    //endregion
+
+    private synchronized Optional<RecipeHolder<CraftingRecipe>> get(CraftingContainer grid, Level level) {
+        RecipeManager manager = level.getRecipeManager();
+        if (owner.get() != manager) {
+            entries.clear();
+            owner = new WeakReference<>(manager);
+        }
+
+        GridKey key = GridKey.of(grid);
+        Optional<RecipeHolder<CraftingRecipe>> recipe = entries.get(key);
+        if (recipe == null) {
+            recipe = manager.getRecipeFor(RecipeType.CRAFTING, grid, level);
+            if (entries.size() >= MAX_ENTRIES) entries.clear();
+            entries.put(key.copyTags(), recipe);
+        }
+        return recipe;
+    }
+
+    private synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Item and tag of each grid slot. Counts are ignored, since crafting recipes only match one item per slot.
+     */
+    private static final class GridKey {
+
+        private final Item[] items;
+        private final @Nullable CompoundTag[] tags;
+        private final int hash;
+
+        private GridKey(Item[] items, @Nullable CompoundTag[] tags) {
+            this.items = items;
+            this.tags = tags;
+            this.hash = 31 * Arrays.hashCode(items) + Arrays.hashCode(tags);
+        }
+
+        static GridKey of(CraftingContainer grid) {
+            int size = grid.getContainerSize();
+            Item[] items = new Item[size];
+            CompoundTag[] tags = new CompoundTag[size];
+            for (int i = 0; i < size; i++) {
+                ItemStack stack = grid.getItem(i);
+                items[i] = stack.getItem();
+                tags[i] = stack.getTag();
+            }
+            return new GridKey(items, tags);
+        }
+
+        // Tags are referenced from the grid during lookup. Stored keys must own their tags
+        GridKey copyTags() {
+            CompoundTag[] copy = new CompoundTag[tags.length];
+            for (int i = 0; i < tags.length; i++) {
+                copy[i] = tags[i] == null ? null : tags[i].copy();
+            }
+            return new GridKey(items, copy);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GridKey other)) return false;
+            return hash == other.hash && Arrays.equals(items, other.items) && Arrays.equals(tags, other.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
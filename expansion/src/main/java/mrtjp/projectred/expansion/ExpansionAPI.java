@@ -5,6 +5,7 @@ import mrtjp.projectred.expansion.client.MovementClientRegistry;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -20,6 +21,11 @@ public class ExpansionAPI implements IExpansionAPI {
         MovementRegistry.registerBlockMover(block, mover);
     }
 
+    @Override
+    public void registerRelocatableBlockEntity(BlockEntityType<?> type) {
+        MovementRegistry.registerRelocatableBlockEntity(type);
+    }
+
     @Override
     public void registerFrameInteraction(FrameInteraction interaction) {
         MovementRegistry.registerFrameInteraction(interaction);
@@ -1,84 +1,108 @@
 package mrtjp.projectred.expansion;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import mrtjp.projectred.api.Frame;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 
-import java.util.Collections;
+import javax.annotation.Nullable;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Set;
 
 public class FrameStickResolver {
 
+    // Memo value for positions that are not frames
+    private static final Frame NO_FRAME = new Frame() {
+        //@formatter:off
+        @Override public boolean canGrab(Level w, BlockPos pos, Direction side) { return false; }
+        @Override public boolean canBeGrabbed(Level w, BlockPos pos, Direction side) { return true; }
+        //@formatter:on
+    };
+
     private final Level level;
     private final BlockPos start;
-    private final Set<BlockPos> exclusions;
+    private final LongOpenHashSet exclusions = new LongOpenHashSet();
 
-    private final LinkedList<BlockPos> open = new LinkedList<>();
-    private final Set<BlockPos> closed = new HashSet<>();
+    // Positions are packed with BlockPos#asLong
+    private final LongArrayFIFOQueue open = new LongArrayFIFOQueue();
+    private final LongOpenHashSet seen = new LongOpenHashSet(); // Open or closed
+    private final LongOpenHashSet closed = new LongOpenHashSet();
+    private final Long2ObjectOpenHashMap<Frame> frames = new Long2ObjectOpenHashMap<>();
 
     public FrameStickResolver(Level level, BlockPos start, Set<BlockPos> exclusions) {
         this.level = level;
         this.start = start;
-        this.exclusions = exclusions;
+        for (BlockPos pos : exclusions) {
+            this.exclusions.add(pos.asLong());
+        }
     }
 
     public Set<BlockPos> resolve() {
         open.clear();
+        seen.clear();
         closed.clear();
+        frames.clear();
 
         // Seed the starting position
-        open.addLast(start);
+        open.enqueue(start.asLong());
+        seen.add(start.asLong());
 
         // Run the loop
         while (!open.isEmpty()) {
             checkNext();
         }
 
-        return closed;
+        Set<BlockPos> result = new HashSet<>(closed.size());
+        for (long pos : closed) {
+            result.add(BlockPos.of(pos));
+        }
+        return result;
     }
 
     private void checkNext() {
-        BlockPos next = open.removeFirst();
-
-        // Create a set of what 'next' can stick to
-        Set<BlockPos> nextSticks = getNextSticks(next);
+        long next = open.dequeueLong();
 
-        // Check each stuck block
-        for (BlockPos stick : nextSticks) {
-            // Make sure next position was not already considered
-            // TODO open contains check is expensive and probably not needed
-            if (closed.contains(stick) || exclusions.contains(stick) || open.contains(stick)) continue;
-
-            // Position is unique. Add it to open list
-            open.addLast(stick);
-        }
+        // Queue everything 'next' can stick to
+        addNextSticks(next);
 
         // Add the current position 'next' to the result list
         closed.add(next);
     }
 
+    private void offerStick(long stick) {
+        // Make sure position was not already considered
+        if (exclusions.contains(stick) || !seen.add(stick)) return;
+
+        // Position is unique. Add it to open list
+        open.enqueue(stick);
+    }
+
     /**
-     * Creates a set of positions that source is currently stuck to.
-     * @param source Source position
-     * @return Set of positions that source is stuck to
+     * Queues all positions that source is currently stuck to.
+     * @param sourcePos Packed source position
      */
-    private Set<BlockPos> getNextSticks(BlockPos source) {
+    private void addNextSticks(long sourcePos) {
 
         // Unless source is a frame, nothing can stick to it
-        Frame frame = MovementRegistry.getFrame(level, source);
-        if (frame == null) return Collections.emptySet();
+        Frame frame = getFrame(sourcePos);
+        if (frame == null) return;
 
         // Query all sides of source
-        Set<BlockPos> stuckBlocks = new HashSet<>();
+        BlockPos source = BlockPos.of(sourcePos);
         for (int s = 0; s < 6; s++) {
             Direction dir = Direction.values()[s];
+            long stuckPos = BlockPos.offset(sourcePos, dir);
+
+            // Skip anything already considered before doing any world queries
+            if (seen.contains(stuckPos) || exclusions.contains(stuckPos)) continue;
+
             if (frame.canGrab(level, source, dir)) {
 
-                BlockPos stuckBlockPos = source.relative(dir);
+                BlockPos stuckBlockPos = BlockPos.of(stuckPos);
                 BlockState stuckBlockState = level.getBlockState(stuckBlockPos);
 
                 // Skip uninteresting blocks such as air
@@ -88,19 +112,29 @@ public class FrameStickResolver {
                 if (MovementManager.getInstance(level).getMovementInfo(stuckBlockPos).isMoving()) continue;
 
                 // If stuck block is a frame, it must also allow the connection
-                Frame stuckFrame = MovementRegistry.getFrame(level, stuckBlockPos);
+                Frame stuckFrame = getFrame(stuckPos);
                 if (stuckFrame != null && !stuckFrame.canBeGrabbed(level, stuckBlockPos, dir.getOpposite())) {
                     continue;
                 }
 
                 // Block can stick. Add it
-                stuckBlocks.add(stuckBlockPos);
+                offerStick(stuckPos);
             }
         }
 
         // Ask source for additional sticks
-        stuckBlocks.addAll(frame.getAdditionalSticks());
+        for (BlockPos stick : frame.getAdditionalSticks()) {
+            offerStick(stick.asLong());
+        }
+    }
 
-        return stuckBlocks;
+    private @Nullable Frame getFrame(long pos) {
+        Frame frame = frames.get(pos);
+        if (frame == null) {
+            frame = MovementRegistry.getFrame(level, BlockPos.of(pos));
+            if (frame == null) frame = NO_FRAME;
+            frames.put(pos, frame);
+        }
+        return frame == NO_FRAME ? null : frame;
     }
 }
@@ -0,0 +1,159 @@
+package mrtjp.projectred.expansion;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Per-dimension cache of frame structures resolved by frame motors.
+ * <p>
+ * Each motor keeps the last structure it resolved, along with its bounds grown by one block to cover anything
+ * that could be grabbed. Any block update inside those bounds, or any movement that overlaps them, drops the
+ * entry so it is resolved again next time. Entries are indexed by the chunk sections their bounds cover, so a
+ * block update only checks entries near it. Server side only.
+ */
+public class FrameStructureCache {
+
+    private static final IdentityHashMap<ResourceKey<Level>, FrameStructureCache> SERVER_INSTANCE = new IdentityHashMap<>();
+
+    private final Long2ObjectOpenHashMap<Entry> entries = new Long2ObjectOpenHashMap<>();
+    // Motor positions of all entries whose bounds cover each section
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> sections = new Long2ObjectOpenHashMap<>();
+
+    private static FrameStructureCache getInstance(Level level) {
+        assert !level.isClientSide;
+        return SERVER_INSTANCE.computeIfAbsent(level.dimension(), k -> new FrameStructureCache());
+    }
+
+    /**
+     * Resolves the structure stuck to the given start position, excluding the motor itself. Resolved structures
+     * are reused until something changes around them.
+     *
+     * @param level    Level
+     * @param start    Position of the first block in the structure
+     * @param motorPos Position of the motor, which is excluded from the structure
+     * @return Unmodifiable set of all block positions in the structure
+     */
+    public static Set<BlockPos> getStructure(Level level, BlockPos start, BlockPos motorPos) {
+        if (level.isClientSide) {
+            return Collections.unmodifiableSet(new FrameStickResolver(level, start, Set.of(motorPos)).resolve());
+        }
+        return getInstance(level).get(level, start, motorPos);
+    }
+
+    /**
+     * Drops the structure cached for the motor at the given position. Must be called when the motor is removed,
+     * as updates at the motor itself don't invalidate its entry.
+     */
+    public static void remove(Level level, BlockPos motorPos) {
+        if (level.isClientSide) return;
+
+        FrameStructureCache cache = SERVER_INSTANCE.get(level.dimension());
+        if (cache != null) cache.remove(motorPos.asLong());
+    }
+
+    /**
+     * Drops all structures whose bounds intersect the given region.
+     */
+    public static void invalidateRegion(Level level, BoundingBox region) {
+        if (level.isClientSide) return;
+
+        FrameStructureCache cache = SERVER_INSTANCE.get(level.dimension());
+        if (cache != null) cache.invalidate(region);
+    }
+
+    //region Events
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide) {
+            FrameStructureCache cache = SERVER_INSTANCE.get(level.dimension());
+            if (cache != null) cache.invalidate(event.getPos());
+        }
+    }
+
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide) {
+            SERVER_INSTANCE.remove(level.dimension());
+        }
+    }
+    //endregion
+
+    private Set<BlockPos> get(Level level, BlockPos start, BlockPos motorPos) {
+        long key = motorPos.asLong();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.start == start.asLong()) {
+            return entry.structure;
+        }
+
+        Set<BlockPos> structure = Collections.unmodifiableSet(new FrameStickResolver(level, start, Set.of(motorPos)).resolve());
+        BoundingBox bounds = BoundingBox.encapsulatingPositions(structure).orElse(new BoundingBox(start)).inflatedBy(1);
+        remove(key);
+        entries.put(key, new Entry(start.asLong(), structure, bounds));
+        forEachSection(bounds, section -> sections.computeIfAbsent(section, k -> new LongOpenHashSet()).add(key));
+        return structure;
+    }
+
+    private void remove(long key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return;
+
+        forEachSection(entry.bounds, section -> {
+            LongOpenHashSet motors = sections.get(section);
+            if (motors != null && motors.remove(key) && motors.isEmpty()) {
+                sections.remove(section);
+            }
+        });
+    }
+
+    private void invalidate(BlockPos pos) {
+        LongOpenHashSet motors = sections.get(SectionPos.asLong(pos));
+        if (motors == null) return;
+
+        long packed = pos.asLong();
+        LongArrayList removed = new LongArrayList();
+        for (long key : motors) {
+            // Motor's own updates (i.e. charged/working state) don't affect its structure
+            if (key != packed && entries.get(key).bounds.isInside(pos)) {
+                removed.add(key);
+            }
+        }
+        for (long key : removed) remove(key);
+    }
+
+    private void invalidate(BoundingBox region) {
+        if (entries.isEmpty()) return;
+
+        LongArrayList removed = new LongArrayList();
+        forEachSection(region, section -> {
+            LongOpenHashSet motors = sections.get(section);
+            if (motors == null) return;
+            for (long key : motors) {
+                if (entries.get(key).bounds.intersects(region)) removed.add(key);
+            }
+        });
+        for (long key : removed) remove(key);
+    }
+
+    private static void forEachSection(BoundingBox box, LongConsumer consumer) {
+        for (int x = SectionPos.blockToSectionCoord(box.minX()); x <= SectionPos.blockToSectionCoord(box.maxX()); x++) {
+            for (int y = SectionPos.blockToSectionCoord(box.minY()); y <= SectionPos.blockToSectionCoord(box.maxY()); y++) {
+                for (int z = SectionPos.blockToSectionCoord(box.minZ()); z <= SectionPos.blockToSectionCoord(box.maxZ()); z++) {
+                    consumer.accept(SectionPos.asLong(x, y, z));
+                }
+            }
+        }
+    }
+
+    private record Entry(long start, Set<BlockPos> structure, BoundingBox bounds) { }
+}
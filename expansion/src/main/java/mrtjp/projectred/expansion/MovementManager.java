@@ -5,33 +5,35 @@ import codechicken.lib.data.MCDataOutput;
 import codechicken.lib.packet.PacketCustom;
 import codechicken.lib.vec.Vector3;
 import com.mojang.blaze3d.vertex.PoseStack;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import mrtjp.projectred.api.BlockMover;
 import mrtjp.projectred.api.MovementController;
 import mrtjp.projectred.api.MovementDescriptor;
 import mrtjp.projectred.core.Configurator;
-import mrtjp.projectred.expansion.client.MovingBlockSuppressorRenderer;
+import mrtjp.projectred.expansion.client.MovingStructureMesh;
 import mrtjp.projectred.lib.VecLib;
 import net.covers1624.quack.collection.FastStream;
 import net.covers1624.quack.util.LazyValue;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.ItemBlockRenderTypes;
-import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.SectionPos;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.phys.Vec3;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.api.distmarker.OnlyIn;
 import net.neoforged.neoforge.client.event.RenderLevelStageEvent;
-import net.neoforged.neoforge.client.model.data.ModelData;
 import net.neoforged.neoforge.event.TickEvent;
 import net.neoforged.neoforge.event.level.ChunkEvent;
 import net.neoforged.neoforge.event.level.ChunkWatchEvent;
@@ -56,6 +58,10 @@ public class MovementManager {
 
     private final ResourceKey<Level> dimension;
     private final Map<Integer, MovingStructure> structures = new HashMap<>();
+    // Read from chunk render threads, so it is replaced rather than modified
+    private volatile Long2ObjectMap<MovingStructure> positionIndex = Long2ObjectMaps.emptyMap();
+    // Client-side render geometry of moving structures, released once the structure is gone
+    private final Map<MovingStructure, MovingStructureMesh> meshes = new IdentityHashMap<>();
     private final HashMap<ServerPlayer, Set<ChunkPos>> watchingPlayers = new HashMap<>();
     private final HashMap<ServerPlayer, Set<ChunkPos>> newWatchers = new HashMap<>();
 
@@ -129,12 +135,12 @@ public class MovementManager {
         if (level == null) return;
 
         MovementManager manager = getInstance(level);
+        manager.releaseFinishedMeshes();
         if (manager.structures.isEmpty()) return;
 
         // Get the renderType for this stage, and skip if we dont care about it
-        List<RenderType> renderTypes = List.of(RenderType.solid(), RenderType.cutout(), RenderType.cutoutMipped(), RenderType.translucent());
         RenderType renderType = null;
-        for (RenderType type : renderTypes) {
+        for (RenderType type : MovingStructureMesh.RENDER_TYPES) {
             if (RenderLevelStageEvent.Stage.fromRenderType(type) == event.getStage()) {
                 renderType = type;
                 break;
@@ -142,48 +148,41 @@ public class MovementManager {
         }
         if (renderType == null) return;
 
-        RandomSource random = RandomSource.create();
-
-        // Set up camera pose
         Vec3 cam = event.getCamera().getPosition();
         PoseStack stack = event.getPoseStack();
-        stack.pushPose();
-        stack.translate(-cam.x, -cam.y, -cam.z);
 
         for (MovingStructure structure : manager.structures.values()) {
 
-            // Set up render offset based on progress of movement
+            // Geometry is built once per structure. Each frame only moves it by the current offset
+            MovingStructureMesh mesh = manager.meshes.computeIfAbsent(structure, s -> s.buildMesh(level));
+
             Vector3 offset = structure.getRenderOffset(event.getPartialTick());
+            BlockPos origin = mesh.getOrigin();
             stack.pushPose();
-            stack.translate(offset.x, offset.y, offset.z);
-
-            MultiBufferSource.BufferSource buffers = Minecraft.getInstance().renderBuffers().bufferSource();
-
-            for (MovingRow row : structure.rows) {
-                Iterator<BlockPos> it = row.iteratePreMove();
-                while (it.hasNext()) {
-                    BlockPos p = it.next();
-                    BlockState state = level.getBlockState(p);
-
-                    if (!ItemBlockRenderTypes.getRenderLayers(state).contains(renderType)) continue;
-
-                    // Render the moving block
-                    stack.pushPose();
-                    stack.translate(p.getX(), p.getY(), p.getZ());
-
-                    MovingBlockSuppressorRenderer.allowMovingRenderOnRenderThread = true;
-                    Minecraft.getInstance().getBlockRenderer().renderBatched(state, p, level, stack, buffers.getBuffer(renderType), false, random, ModelData.EMPTY, renderType);
-                    MovingBlockSuppressorRenderer.allowMovingRenderOnRenderThread = false;
+            stack.translate(origin.getX() - cam.x + offset.x, origin.getY() - cam.y + offset.y, origin.getZ() - cam.z + offset.z);
+            mesh.render(renderType, stack, event.getProjectionMatrix());
+            stack.popPose();
+        }
+    }
 
-                    stack.popPose(); //p
-                }
+    @OnlyIn(Dist.CLIENT)
+    private void releaseFinishedMeshes() {
+        if (meshes.isEmpty()) return;
+
+        var it = meshes.entrySet().iterator();
+        while (it.hasNext()) {
+            var e = it.next();
+            if (structures.get(e.getKey().id) != e.getKey()) {
+                e.getValue().close();
+                it.remove();
             }
-
-            buffers.endBatch();
-            stack.popPose(); //offset
         }
+    }
 
-        stack.popPose(); //cam
+    @OnlyIn(Dist.CLIENT)
+    private void releaseAllMeshes() {
+        meshes.values().forEach(MovingStructureMesh::close);
+        meshes.clear();
     }
 
     private void addChunkWatcher(ChunkPos pos, ServerPlayer player) {
@@ -207,6 +206,10 @@ public class MovementManager {
             structure.cancelMove(level); // prob doesn't matter at this point
         }
         structures.clear();
+        rebuildPositionIndex();
+        if (level.isClientSide) {
+            releaseAllMeshes();
+        }
         nextStructureId = 0;
     }
 
@@ -220,6 +223,7 @@ public class MovementManager {
                 LOGGER.debug("Cancelling move {}", structure.toString());
                 // Cancel move
                 structure.cancelMove(level);
+                FrameStructureCache.invalidateRegion(level, structure.getBounds());
                 // Tell client
                 sendCancelMove(structure);
                 // Remove
@@ -229,6 +233,7 @@ public class MovementManager {
         for (Integer key : removed) {
             structures.remove(key);
         }
+        if (!removed.isEmpty()) rebuildPositionIndex();
     }
 
     private void tick(Level level) {
@@ -266,6 +271,7 @@ public class MovementManager {
 
                 // Execute post-move. Block updates can be done here since client has moved blocks already
                 structure.executePostMove(level);
+                FrameStructureCache.invalidateRegion(level, structure.getBounds());
 
                 // Remove
                 removed.add(e.getKey());
@@ -274,6 +280,7 @@ public class MovementManager {
         for (Integer key : removed) {
             structures.remove(key);
         }
+        if (!removed.isEmpty()) rebuildPositionIndex();
     }
 
     public MovementDescriptor beginMove(Level level, Set<BlockPos> blocks, int dir, double speed) {
@@ -296,6 +303,8 @@ public class MovementManager {
 
         // Add structure and send to client
         structures.put(structure.id, structure);
+        FrameStructureCache.invalidateRegion(level, structure.getBounds()); // Blocks in it are now moving
+        rebuildPositionIndex();
         sendNewStructureDescription(structure);
 
         // Begin move (client does this when structure received from above call)
@@ -309,10 +318,22 @@ public class MovementManager {
     }
 
     public InternalMovementInfo getMovementInfo(BlockPos pos) {
+        MovingStructure structure = positionIndex.get(pos.asLong());
+        return structure != null ? structure : InternalMovementInfo.NO_MOVEMENT_INFO;
+    }
+
+    private void rebuildPositionIndex() {
+        if (structures.isEmpty()) {
+            positionIndex = Long2ObjectMaps.emptyMap();
+            return;
+        }
+
+        Long2ObjectOpenHashMap<MovingStructure> index = new Long2ObjectOpenHashMap<>();
         for (MovingStructure structure : structures.values()) {
-            if (structure.contains(pos)) return structure;
+            // If structures overlap, the first one claims the position
+            FastStream.of(structure.rows).forEach(r -> r.forEachAll(p -> index.putIfAbsent(p.asLong(), structure)));
         }
-        return InternalMovementInfo.NO_MOVEMENT_INFO;
+        positionIndex = index;
     }
 
     //region Network
@@ -342,6 +363,7 @@ public class MovementManager {
             }
             structures.put(structure.id, structure);
         }
+        rebuildPositionIndex();
     }
 
     private void readNewStructure(MCDataInput input, Level level) {
@@ -352,6 +374,7 @@ public class MovementManager {
         }
 
         structures.put(structure.id, structure);
+        rebuildPositionIndex();
         structure.beginMove(level);
     }
 
@@ -372,6 +395,7 @@ public class MovementManager {
 
         // Full movement complete on client-side. Remove structure
         structures.remove(id);
+        rebuildPositionIndex();
     }
 
     private void readStructureCancellation(MCDataInput input, Level level) {
@@ -382,6 +406,7 @@ public class MovementManager {
         } else {
             structure.cancelMove(level);
             structures.remove(id);
+            rebuildPositionIndex();
         }
     }
 
@@ -468,6 +493,7 @@ public class MovementManager {
 
         private final LazyValue<HashSet<ChunkPos>> intersectingChunks = new LazyValue<>(this::computeIntersectingChunks);
         private final LazyValue<HashSet<SectionPos>> renderChunks = new LazyValue<>(this::computeRenderChunks);
+        private final LazyValue<BoundingBox> bounds = new LazyValue<>(this::computeBounds);
 
         private MovementStatus status;
         private double progress;
@@ -548,15 +574,15 @@ public class MovementManager {
             return intersectingChunks.get();
         }
 
-        public boolean intersects(ChunkPos pos) {
-            return intersectingChunks.get().contains(pos);
+        /**
+         * Bounds of all positions involved in the move, including row heads and the blocks that are vacated.
+         */
+        public BoundingBox getBounds() {
+            return bounds.get();
         }
 
-        public boolean contains(BlockPos pos) {
-            for (MovingRow row : rows) {
-                if (row.contains(pos)) return true;
-            }
-            return false;
+        public boolean intersects(ChunkPos pos) {
+            return intersectingChunks.get().contains(pos);
         }
 
         public void tickProgress(Level level) {
@@ -595,7 +621,9 @@ public class MovementManager {
 
         public void executePreMove(Level level) {
             // Silently moves blocks to new position
-            FastStream.of(rows).forEach(r -> r.moveBlocks(level));
+            BlockMoveBatch batch = new BlockMoveBatch(level);
+            FastStream.of(rows).forEach(r -> r.moveBlocks(level, batch));
+            batch.flush();
         }
 
         public void executePostMove(Level level) {
@@ -603,11 +631,19 @@ public class MovementManager {
             FastStream.of(rows).forEach(r -> r.postMove(level));
             FastStream.of(rows).forEach(r -> r.endMove(level));
 
-            // Update neighbors
-            Set<BlockPos> changes = new HashSet<>();
-            FastStream.of(rows).forEach(r -> r.addNeighborChanges(level, changes));
+            // Update neighbors of the structure's outer shell only. Enclosed blocks moved along with every block
+            // around them, diagonals included, so nothing they can see changed. Their block entities refresh
+            // themselves in BlockMover#postMove
+            LongOpenHashSet moved = new LongOpenHashSet(totalSize);
+            FastStream.of(rows).forEach(r -> r.forEachPostMove(p -> moved.add(p.asLong())));
+
+            LongOpenHashSet changes = new LongOpenHashSet();
+            FastStream.of(rows).forEach(r -> r.addNeighborChanges(moved, changes));
+
+            for (long packed : changes) {
+                if (isEnclosed(moved, packed)) continue;
 
-            for (BlockPos pos : changes) {
+                BlockPos pos = BlockPos.of(packed);
                 BlockState state = level.getBlockState(pos);
                 state.updateNeighbourShapes(level, pos, 0, 0);
                 state.updateIndirectNeighbourShapes(level, pos, 0, 0);
@@ -626,6 +662,21 @@ public class MovementManager {
             status = FINISHED;
         }
 
+        // True if the position and all 26 positions around it hold moved blocks
+        private static boolean isEnclosed(LongSet moved, long packed) {
+            int x = BlockPos.getX(packed);
+            int y = BlockPos.getY(packed);
+            int z = BlockPos.getZ(packed);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        if (!moved.contains(BlockPos.asLong(x + dx, y + dy, z + dz))) return false;
+                    }
+                }
+            }
+            return true;
+        }
+
         public void cancelMove(Level level) {
             // Shouldn't need to do anything. Nothing happens until the animation is finished
             // TODO MovementController notification for this?
@@ -633,6 +684,13 @@ public class MovementManager {
             status = CANCELLED;
         }
 
+        @OnlyIn(Dist.CLIENT)
+        private MovingStructureMesh buildMesh(Level level) {
+            List<BlockPos> blocks = new ArrayList<>(totalSize);
+            FastStream.of(rows).forEach(r -> r.forEachPreMove(p -> blocks.add(p.immutable())));
+            return MovingStructureMesh.build(level, rows.get(0).pos, blocks);
+        }
+
         @OnlyIn(Dist.CLIENT)
         private void markChunksForRender() {
             FastStream.of(renderChunks.get()).forEach(p -> Minecraft.getInstance().levelRenderer.setSectionDirty(p.x(), p.y(), p.z(), true));
@@ -648,6 +706,12 @@ public class MovementManager {
             return chunks;
         }
 
+        private BoundingBox computeBounds() {
+            BoundingBox box = new BoundingBox(rows.get(0).pos);
+            FastStream.of(rows).forEach(r -> r.forEachAll(box::encapsulate));
+            return box;
+        }
+
         private HashSet<SectionPos> computeRenderChunks() {
             HashSet<SectionPos> chunks = new HashSet<>();
             FastStream.of(rows).forEach(r -> r.forEachAll(p -> {
@@ -692,22 +756,6 @@ public class MovementManager {
             this.size = row.size() + 1;
         }
 
-        public boolean contains(BlockPos pos) {
-
-            BlockPos p1 = VecLib.projectDir(this.pos, dir);
-            BlockPos p2 = VecLib.projectDir(pos, dir);
-
-            // If projections towards dir plane are not equal, they cannot be on same axis
-            if (!p1.equals(p2)) return false;
-
-            // pos is on the same line as this row. Check if its between start and end
-            int a1 = VecLib.rejectComponent(this.pos, dir);
-            int a2 = VecLib.rejectComponent(this.pos.relative(Direction.values()[dir ^ 1], size - 1), dir);
-            int b = VecLib.rejectComponent(pos, dir);
-
-            return Math.min(a1, a2) <= b && b <= Math.max(a1, a2);
-        }
-
         public boolean canMove(Level level) {
             if (!level.isLoaded(pos)) return false;
             BlockState state = level.getBlockState(pos);
@@ -744,10 +792,16 @@ public class MovementManager {
             //TODO
         }
 
-        public void moveBlocks(Level level) {
+        public void moveBlocks(Level level, BlockMoveBatch batch) {
             forEachPreMove(p -> {
                 BlockMover mover = MovementRegistry.getMover(level, p);
-                mover.move(level, p, Direction.values()[dir]);
+                if (mover instanceof MovementRegistry.BatchedBlockMover batchedMover) {
+                    batchedMover.move(batch, level, p, Direction.values()[dir]);
+                } else {
+                    // Other movers expect to see every earlier move already applied
+                    batch.flush();
+                    mover.move(level, p, Direction.values()[dir]);
+                }
             });
         }
 
@@ -767,11 +821,13 @@ public class MovementManager {
             }
         }
 
-        public void addNeighborChanges(Level level, Set<BlockPos> changes) {
+        public void addNeighborChanges(LongSet moved, LongSet changes) {
             forEachAll(p -> {
-                changes.add(p);
+                long packed = p.asLong();
+                if (MovingStructure.isEnclosed(moved, packed)) return;
+                changes.add(packed);
                 for (int s = 0; s < 6; s++) {
-                    changes.add(p.relative(Direction.values()[s]));
+                    changes.add(BlockPos.offset(packed, Direction.values()[s]));
                 }
             });
         }
@@ -3,6 +3,8 @@ package mrtjp.projectred.expansion;
 import codechicken.multipart.block.TileMultipart;
 import codechicken.multipart.init.CBMultipartModContent;
 import mrtjp.projectred.api.*;
+import mrtjp.projectred.core.tile.IBlockEventBlockEntity;
+import mrtjp.projectred.core.tile.ProjectRedBlockEntity;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
@@ -10,22 +12,19 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
-import net.minecraft.world.level.chunk.LevelChunkSection;
-import net.minecraft.world.level.levelgen.Heightmap;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 public class MovementRegistry {
 
     //TODO maybe these need to be ForgeRegistries to ensure clients get same mover tied to a block?
     private static final List<FrameInteraction> frameInteractions = new LinkedList<>();
     private static final Map<Block, BlockMover> blockMovers = new HashMap<>();
+    private static final Set<BlockEntityType<?>> relocatableBlockEntities = new HashSet<>();
 
     public static void init() {
         // Register built-in movers
@@ -36,6 +35,10 @@ public class MovementRegistry {
         blockMovers.put(block, mover);
     }
 
+    public static void registerRelocatableBlockEntity(BlockEntityType<?> type) {
+        relocatableBlockEntities.add(type);
+    }
+
     public static void registerFrameInteraction(FrameInteraction interaction) {
         frameInteractions.add(interaction);
     }
@@ -89,7 +92,23 @@ public class MovementRegistry {
         return SaveLoadTileMover.INSTANCE;
     }
 
-    private static class MultipartTileMover implements BlockMover {
+    /**
+     * A mover that can defer its block writes to a {@link BlockMoveBatch}. Movements run through the batched
+     * method, while the plain {@link BlockMover#move(Level, BlockPos, Direction)} applies immediately.
+     */
+    public interface BatchedBlockMover extends BlockMover {
+
+        void move(BlockMoveBatch batch, Level w, BlockPos pos, Direction dir);
+
+        @Override
+        default void move(Level w, BlockPos pos, Direction dir) {
+            BlockMoveBatch batch = new BlockMoveBatch(w);
+            move(batch, w, pos, dir);
+            batch.flush();
+        }
+    }
+
+    private static class MultipartTileMover implements BatchedBlockMover {
 
         public static final MultipartTileMover INSTANCE = new MultipartTileMover();
 
@@ -102,26 +121,11 @@ public class MovementRegistry {
         }
 
         @Override
-        public void move(Level w, BlockPos pos, Direction dir) {
+        public void move(BlockMoveBatch batch, Level w, BlockPos pos, Direction dir) {
             BlockEntity be = w.getBlockEntity(pos);
             if (!(be instanceof TileMultipart tmp)) return;
 
-            LevelChunk chunk = w.getChunkAt(pos);
-            BlockState state = w.getBlockState(pos);
-
-            BlockPos pos2 = pos.relative(dir);
-            LevelChunk chunk2 = w.getChunkAt(pos2);
-
-            // Remove old block and tile
-            silentSetBlockState(chunk, pos, Blocks.AIR.defaultBlockState());
-            chunk.removeBlockEntity(pos);
-
-            // Set blockstate in new position without causing blockentity creation
-            silentSetBlockState(chunk2, pos2, state);
-
-            // Move the tile and add it back
-            tmp.worldPosition = pos2;
-            chunk2.addAndRegisterBlockEntity(tmp);
+            relocateBlockEntity(batch, w, tmp, pos, dir);
         }
 
         @Override
@@ -133,7 +137,7 @@ public class MovementRegistry {
         }
     }
 
-    private static class SaveLoadTileMover implements BlockMover {
+    private static class SaveLoadTileMover implements BatchedBlockMover {
 
         public static final SaveLoadTileMover INSTANCE = new SaveLoadTileMover();
 
@@ -147,9 +151,16 @@ public class MovementRegistry {
         }
 
         @Override
-        public void move(Level w, BlockPos pos, Direction dir) {
+        public void move(BlockMoveBatch batch, Level w, BlockPos pos, Direction dir) {
             LevelChunk chunk = w.getChunkAt(pos);
 
+            // Move known block entities as-is. Pending (not yet loaded) ones are left to the save/load path below
+            BlockEntity be = chunk.getBlockEntity(pos, LevelChunk.EntityCreationType.CHECK);
+            if (be != null && isRelocatable(be)) {
+                relocateBlockEntity(batch, w, be, pos, dir);
+                return;
+            }
+
             BlockPos pos2 = pos.relative(dir);
             LevelChunk chunk2 = w.getChunkAt(pos2);
 
@@ -157,11 +168,11 @@ public class MovementRegistry {
             CompoundTag tag = chunk.getBlockEntityNbtForSaving(pos); // Save existing tile to nbt
 
             // Remove old block and tile
-            silentSetBlockState(chunk, pos, Blocks.AIR.defaultBlockState());
+            batch.setBlockState(pos, Blocks.AIR.defaultBlockState());
             chunk.removeBlockEntity(pos);
 
             // Set blockstate in new position without causing blockentity creation
-            silentSetBlockState(chunk2, pos2, state);
+            batch.setBlockState(pos2, state);
 
             if (tag != null) {
                 // Alter the tag into new position
@@ -179,28 +190,36 @@ public class MovementRegistry {
 
             // Force block entity promotion
             // TODO is there any benefit to doing this post-move?
-            chunk.getBlockEntity(pos);
+            BlockEntity be = chunk.getBlockEntity(pos);
+
+            // Relocated block entities are not notified if enclosed by the structure, so refresh them here
+            if (be instanceof IBlockEventBlockEntity ebe) {
+                ebe.onNeighborBlockChanged(pos);
+            }
         }
     }
 
-    // This should be identical to LevelChunk#setBlockState without block entity creation and state onRemove/onPlace notifications
-    private static void silentSetBlockState(LevelChunk chunk, BlockPos pos, BlockState state) {
+    private static boolean isRelocatable(BlockEntity be) {
+        // All of our own block entities are safe to move directly. Others must opt in
+        return be instanceof ProjectRedBlockEntity || relocatableBlockEntities.contains(be.getType());
+    }
+
+    // Moves the block and its existing block entity instance, without a save/load round trip
+    private static void relocateBlockEntity(BlockMoveBatch batch, Level w, BlockEntity be, BlockPos pos, Direction dir) {
+        LevelChunk chunk = w.getChunkAt(pos);
+        BlockState state = w.getBlockState(pos);
 
-        int y = pos.getY();
-        LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+        BlockPos pos2 = pos.relative(dir);
 
-        boolean hasOnlyAir = section.hasOnlyAir();
-        if (hasOnlyAir && state.isAir()) return;
+        // Remove old block and tile
+        batch.setBlockState(pos, Blocks.AIR.defaultBlockState());
+        chunk.removeBlockEntity(pos);
 
-        int j = pos.getX() & 15;
-        int k = y & 15;
-        int l = pos.getZ() & 15;
-        BlockState oldState = section.setBlockState(j, k, l, state);
-        if (oldState == state) return;
+        // Set blockstate in new position without causing blockentity creation
+        batch.setBlockState(pos2, state);
 
-        chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.MOTION_BLOCKING).update(j, y, l, state);
-        chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES).update(j, y, l, state);
-        chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.OCEAN_FLOOR).update(j, y, l, state);
-        chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE).update(j, y, l, state);
+        // Move the tile and add it back once its block is in place
+        be.worldPosition = pos2;
+        batch.addBlockEntity(be);
     }
 }
@@ -7,6 +7,7 @@ import mrtjp.projectred.api.Frame;
 import mrtjp.projectred.api.ProjectRedAPI;
 import mrtjp.projectred.expansion.data.*;
 import mrtjp.projectred.expansion.init.*;
+import mrtjp.projectred.expansion.pneumatics.PneumaticTubeScheduler;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.data.DataGenerator;
@@ -95,10 +96,21 @@ public class ProjectRedExpansion {
         NeoForge.EVENT_BUS.addListener(MovementManager::onLevelLoad);
         NeoForge.EVENT_BUS.addListener(MovementManager::onLevelUnload);
 
+        // FrameStructureCache hooks
+        NeoForge.EVENT_BUS.addListener(FrameStructureCache::onNeighborNotify);
+        NeoForge.EVENT_BUS.addListener(FrameStructureCache::onLevelUnload);
+
         // GraphDebugManager hooks
         NeoForge.EVENT_BUS.addListener(GraphDebugManager::onLevelUnload);
         NeoForge.EVENT_BUS.addListener(GraphDebugManager::onLevelTick);
         NeoForge.EVENT_BUS.addListener(GraphDebugManager::registerClientCommands);
+
+        // CraftingRecipeCache hooks
+        NeoForge.EVENT_BUS.addListener(CraftingRecipeCache::onAddReloadListeners);
+
+        // PneumaticTubeScheduler hooks
+        NeoForge.EVENT_BUS.addListener(PneumaticTubeScheduler::onLevelTick);
+        NeoForge.EVENT_BUS.addListener(PneumaticTubeScheduler::onLevelUnload);
     }
 
     public static ModContainer getContainer() {
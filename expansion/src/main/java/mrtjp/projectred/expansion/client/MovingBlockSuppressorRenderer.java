@@ -77,8 +77,9 @@ public class MovingBlockSuppressorRenderer implements ICCBlockRenderer {
     }
 
     private static boolean isAdjacentToMoving(MovementManager manager, BlockPos pos) {
+        BlockPos.MutableBlockPos neighbor = new BlockPos.MutableBlockPos();
         for (int s = 0; s < 6; s++) {
-            if (isMoving(manager, pos.relative(Direction.values()[s]))) return true;
+            if (isMoving(manager, neighbor.setWithOffset(pos, Direction.values()[s]))) return true;
         }
         return false;
     }
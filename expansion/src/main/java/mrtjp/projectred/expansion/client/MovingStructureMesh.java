@@ -0,0 +1,102 @@
+package mrtjp.projectred.expansion.client;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexBuffer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.ItemBlockRenderTypes;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.block.BlockRenderDispatcher;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.client.model.data.ModelData;
+import org.joml.Matrix4f;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Block geometry of a moving structure, tessellated once into a static vertex buffer per render type.
+ * <p>
+ * Vertices are relative to an origin block, so only a translation is needed to draw the structure at any point
+ * in its movement. Buffers must be released with {@link #close()} once the movement is over.
+ */
+public class MovingStructureMesh implements AutoCloseable {
+
+    public static final List<RenderType> RENDER_TYPES = List.of(RenderType.solid(), RenderType.cutout(), RenderType.cutoutMipped(), RenderType.translucent());
+
+    // Only used on the render thread, one mesh at a time
+    private static final BufferBuilder BUILDER = new BufferBuilder(256);
+
+    private final BlockPos origin;
+    private final Map<RenderType, VertexBuffer> buffers = new HashMap<>();
+
+    private MovingStructureMesh(BlockPos origin) {
+        this.origin = origin;
+    }
+
+    public static MovingStructureMesh build(Level level, BlockPos origin, Collection<BlockPos> blocks) {
+        MovingStructureMesh mesh = new MovingStructureMesh(origin);
+        BlockRenderDispatcher dispatcher = Minecraft.getInstance().getBlockRenderer();
+        RandomSource random = RandomSource.create();
+        PoseStack stack = new PoseStack();
+
+        for (RenderType renderType : RENDER_TYPES) {
+            BUILDER.begin(renderType.mode(), renderType.format());
+
+            for (BlockPos p : blocks) {
+                BlockState state = level.getBlockState(p);
+                if (!ItemBlockRenderTypes.getRenderLayers(state).contains(renderType)) continue;
+
+                stack.pushPose();
+                stack.translate(p.getX() - origin.getX(), p.getY() - origin.getY(), p.getZ() - origin.getZ());
+
+                MovingBlockSuppressorRenderer.allowMovingRenderOnRenderThread = true;
+                dispatcher.renderBatched(state, p, level, stack, BUILDER, false, random, ModelData.EMPTY, renderType);
+                MovingBlockSuppressorRenderer.allowMovingRenderOnRenderThread = false;
+
+                stack.popPose();
+            }
+
+            BufferBuilder.RenderedBuffer rendered = BUILDER.endOrDiscardIfEmpty();
+            if (rendered == null) continue;
+
+            VertexBuffer buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+            buffer.bind();
+            buffer.upload(rendered);
+            VertexBuffer.unbind();
+            mesh.buffers.put(renderType, buffer);
+        }
+
+        return mesh;
+    }
+
+    public BlockPos getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Draws the given layer. The pose must already be translated to the origin block.
+     */
+    public void render(RenderType renderType, PoseStack stack, Matrix4f projectionMatrix) {
+        VertexBuffer buffer = buffers.get(renderType);
+        if (buffer == null) return;
+
+        renderType.setupRenderState();
+        buffer.bind();
+        buffer.drawWithShader(stack.last().pose(), projectionMatrix, RenderSystem.getShader());
+        VertexBuffer.unbind();
+        renderType.clearRenderState();
+    }
+
+    @Override
+    public void close() {
+        buffers.values().forEach(VertexBuffer::close);
+        buffers.clear();
+    }
+}
@@ -27,5 +27,8 @@ public interface GraphContainer {
     boolean requiresActiveNode();
 
     void onNodeChanged(boolean linksChanged, boolean stateChange);
+
+    // Node links were marked for refresh. Container should call GraphNode#onTick soon after
+    default void onNodeRefreshRequested() { }
     //endregion
 }
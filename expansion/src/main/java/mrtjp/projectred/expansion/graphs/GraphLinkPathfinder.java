@@ -1,5 +1,6 @@
 package mrtjp.projectred.expansion.graphs;
 
+import javax.annotation.Nullable;
 import java.util.*;
 
 public class GraphLinkPathfinder {
@@ -28,7 +29,7 @@ public class GraphLinkPathfinder {
             GraphContainer nextContainer = startContainer.getNodeTowards(s);
             if (nextContainer == null) continue;
 
-            Node next = new Node(nextContainer, s ^ 1, s, startContainer.getLinkWeight(), Collections.singletonList(s));
+            Node next = new Node(nextContainer, s ^ 1, s, startContainer.getLinkWeight(), new PathSegment(s, 1, null));
 
             if (!openSet.contains(next) && !closedSet.contains(next)) {
                 open.add(next);
@@ -85,14 +86,25 @@ public class GraphLinkPathfinder {
         return Collections.unmodifiableList(links);
     }
 
+    /**
+     * Reversed list of straight path segments. Nodes share the segments of the node they were expanded from.
+     */
+    private record PathSegment(int dir, int length, @Nullable PathSegment prev) {
+
+        public PathSegment towards(int nextDir) {
+            // Extend the current segment if going straight, otherwise start a new one
+            return nextDir == dir ? new PathSegment(dir, length + 1, prev) : new PathSegment(nextDir, 1, this);
+        }
+    }
+
     private static class Node {
         public final GraphContainer container;
         public final int inputDir;
         public final int initialDir;
         public final int weight;
-        public final List<Integer> path;
+        public final @Nullable PathSegment path;
 
-        public Node(GraphContainer container, int inputDir, int initialDir, int weight, List<Integer> path) {
+        public Node(GraphContainer container, int inputDir, int initialDir, int weight, @Nullable PathSegment path) {
             this.container = container;
             this.inputDir = inputDir;
             this.initialDir = initialDir;
@@ -114,42 +126,16 @@ public class GraphLinkPathfinder {
         }
 
         public Node towards(GraphContainer nextContainer, int dir, int weight) {
-            List<Integer> nextPath = new LinkedList<>(path);
-            nextPath.add(dir);
+            PathSegment nextPath = path == null ? new PathSegment(dir, 1, null) : path.towards(dir);
             return new Node(nextContainer, dir ^ 1, initialDir, this.weight + weight, nextPath);
         }
 
         public List<GraphLinkSegment> calcSegments() {
-            // Using list of directions, turn them into segments which are
-            // a pair of direction and distance
-
-            if (path.isEmpty()) return Collections.emptyList();
-
-            Iterator<Integer> it = path.iterator();
-            int dir = it.next();
-            int dist = 1;
-
-            List<GraphLinkSegment> segments = new LinkedList<>();
-            while (it.hasNext()) {
-                int next = it.next();
-
-                // If direction changed...
-                if (next != dir) {
-                    // Add the current segment
-                    segments.add(new GraphLinkSegment(dir, dist));
-
-                    // Begin a new segment
-                    dir = next;
-                    dist = 1;
-
-                } else {
-                    dist++;
-                }
+            // Segments are stored last to first
+            LinkedList<GraphLinkSegment> segments = new LinkedList<>();
+            for (PathSegment p = path; p != null; p = p.prev) {
+                segments.addFirst(new GraphLinkSegment(p.dir, p.length));
             }
-
-            // Add the last segment
-            segments.add(new GraphLinkSegment(dir, dist));
-
             return segments;
         }
     }
@@ -0,0 +1,676 @@
+package mrtjp.projectred.expansion.graphs;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+import static mrtjp.projectred.expansion.ProjectRedExpansion.LOGGER;
+
+/**
+ * A connected group of {@link GraphNode}s that owns the route data of all its members.
+ * <p>
+ * Routes are kept as one shortest path tree per source node. Small networks compute the trees of every member in
+ * a single batch into shared row-per-source matrices, so a rebuilt factory pays for one pass over the network
+ * instead of one search per tube. Larger networks compute trees lazily, only for sources that are queried, and keep
+ * at most {@link #TREE_LIMIT} of them, dropping the least recently used. Their memory then grows linearly with the
+ * node count instead of with its square. Route tables handed out by {@link #getRouteTable(GraphNode)} are views into
+ * these trees and only build the routes that are actually iterated.
+ * <p>
+ * When a member's links change, the trees are repaired in place: a removed link only re-searches the subtree that
+ * was routed through it, and an added link only relaxes the nodes it makes closer. Changes in membership (a node
+ * going active or inactive, or a link reaching a node outside the network) are not repaired. The network is
+ * invalidated and rebuilt the next time a route table is requested.
+ */
+public class GraphNetwork {
+
+    /**
+     * Networks up to this many nodes compute all trees at once into shared matrices
+     */
+    private static final int MATRIX_LIMIT = 256;
+
+    /**
+     * Networks above {@link #MATRIX_LIMIT} keep at most this many trees
+     */
+    private static final int TREE_LIMIT = 64;
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final List<GraphNode> nodes;
+    private final IdentityHashMap<GraphNode, Integer> indices;
+    private final ShortestPaths[] paths;
+
+    // Row-per-source matrices, only allocated for small networks
+    private final @Nullable int[] distMatrix;
+    private final @Nullable int[] parentMatrix;
+    private final @Nullable GraphLink[] linkMatrix;
+
+    // Trees of large networks in access order, used to drop the least recently used one
+    private final @Nullable LinkedHashMap<Integer, ShortestPaths> recentPaths;
+
+    // Compact adjacency over node indices, rebuilt after links change
+    private @Nullable Adjacency adjacency = null;
+    private final LongHeap heap = new LongHeap();
+
+    // Scratch space for removeLink, allocated on first use
+    private @Nullable byte[] removeState = null;
+    private @Nullable int[] removeChain = null;
+
+    // Members that were marked for a link refresh, in the order they were marked. May hold nodes that have
+    // since been refreshed, which are skipped
+    private final ArrayDeque<GraphNode> pendingRefresh = new ArrayDeque<>();
+
+    private boolean valid = true;
+
+    private GraphNetwork(List<GraphNode> nodes) {
+        int n = nodes.size();
+        this.nodes = nodes;
+        this.indices = new IdentityHashMap<>(n);
+        for (int i = 0; i < n; i++) {
+            indices.put(nodes.get(i), i);
+        }
+        this.paths = new ShortestPaths[n];
+
+        if (n <= MATRIX_LIMIT) {
+            distMatrix = new int[n * n];
+            parentMatrix = new int[n * n];
+            linkMatrix = new GraphLink[n * n];
+            recentPaths = null;
+        } else {
+            distMatrix = null;
+            parentMatrix = null;
+            linkMatrix = null;
+            recentPaths = new LinkedHashMap<>(16, 0.75F, true);
+        }
+    }
+
+    //region Lifecycle
+    /**
+     * Finds all nodes linked to the given node and groups them into a new network.
+     */
+    public static GraphNetwork build(GraphNode start) {
+        // Collect all nodes reachable through links. Links are refreshed as they are explored
+        List<GraphNode> members = new ArrayList<>();
+        Set<GraphNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Queue<GraphNode> open = new ArrayDeque<>();
+        open.add(start);
+        seen.add(start);
+        while (!open.isEmpty()) {
+            GraphNode node = open.poll();
+            members.add(node);
+            for (GraphLink link : node.getLinks()) {
+                GraphNode next = link.to().getNode();
+                if (seen.add(next)) {
+                    open.add(next);
+                }
+            }
+        }
+
+        GraphNetwork network = new GraphNetwork(members);
+        for (GraphNode node : members) {
+            node.setNetwork(network);
+        }
+        // Nodes explored early may have been marked again by refreshes of nodes explored after them
+        for (GraphNode node : members) {
+            if (node.needsLinkRefresh()) network.pendingRefresh.add(node);
+        }
+        LOGGER.debug("Built graph network with {} nodes", members.size());
+        return network;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void invalidate() {
+        if (!valid) return;
+        valid = false;
+        pendingRefresh.clear();
+        for (GraphNode node : nodes) {
+            node.clearNetwork(this);
+        }
+    }
+
+    /**
+     * Called when a member node is marked for a link refresh.
+     */
+    void markPendingRefresh(GraphNode node) {
+        if (valid) pendingRefresh.add(node);
+    }
+
+    /**
+     * Applies pending link refreshes of member nodes. Only nodes marked since the last call are visited.
+     *
+     * @return True if the network is still valid afterwards
+     */
+    public boolean refreshLinks() {
+        // Refreshes may mark further nodes, which are appended and handled in the same pass
+        while (valid && !pendingRefresh.isEmpty()) {
+            GraphNode node = pendingRefresh.poll();
+            if (node.needsLinkRefresh()) {
+                node.getLinks();
+            }
+        }
+        return valid;
+    }
+
+    public boolean contains(GraphNode node) {
+        return indices.containsKey(node);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+    //endregion
+
+    //region Route tables
+    /**
+     * Returns a view of the routes from the given member node. The view is only valid until the network changes,
+     * so it should not be held on to.
+     */
+    public GraphRouteTable getRouteTable(GraphNode node) {
+        ShortestPaths sp = getPaths(indices.get(node));
+        if (sp.table == null) {
+            sp.table = new RouteTableView(sp);
+        }
+        return sp.table;
+    }
+
+    public Optional<GraphRouteTable> getRouteTableIfPresent(GraphNode node) {
+        Integer idx = indices.get(node);
+        if (idx == null || paths[idx] == null) return Optional.empty();
+        return Optional.ofNullable(paths[idx].table);
+    }
+
+    private ShortestPaths getPaths(int source) {
+        if (distMatrix != null) {
+            if (paths[source] == null) computeAllPaths();
+            return paths[source];
+        }
+
+        assert recentPaths != null;
+        if (paths[source] != null) {
+            recentPaths.get(source); // Mark as recently used
+            return paths[source];
+        }
+
+        if (recentPaths.size() >= TREE_LIMIT) {
+            // Drop the least recently used tree. Views of it that are still around keep their own arrays
+            Iterator<ShortestPaths> it = recentPaths.values().iterator();
+            paths[it.next().source] = null;
+            it.remove();
+        }
+
+        int n = nodes.size();
+        ShortestPaths sp = new ShortestPaths(source, new int[n], new int[n], new GraphLink[n], 0);
+        sp.computeFull();
+        paths[source] = sp;
+        recentPaths.put(source, sp);
+        return sp;
+    }
+
+    private void computeAllPaths() {
+        assert distMatrix != null && parentMatrix != null && linkMatrix != null;
+        int n = nodes.size();
+        for (int s = 0; s < n; s++) {
+            if (paths[s] == null) {
+                ShortestPaths sp = new ShortestPaths(s, distMatrix, parentMatrix, linkMatrix, s * n);
+                sp.computeFull();
+                paths[s] = sp;
+            }
+        }
+        LOGGER.debug("Computed all routes for network of {} nodes", n);
+    }
+    //endregion
+
+    //region Link changes
+    /**
+     * Called after a member node replaced its links. Repairs all existing shortest path trees.
+     */
+    public void onLinksChanged(GraphNode node, List<GraphLink> oldLinks, List<GraphLink> newLinks) {
+        Integer u = indices.get(node);
+        if (u == null) {
+            invalidate();
+            return;
+        }
+
+        // New links to nodes outside the network require rebuilding membership
+        for (GraphLink link : newLinks) {
+            if (!indices.containsKey(link.to().getNode())) {
+                LOGGER.debug("Link to node outside of network. Invalidating network");
+                invalidate();
+                return;
+            }
+        }
+
+        adjacency = null;
+
+        List<GraphLink> removed = new ArrayList<>();
+        List<GraphLink> added = new ArrayList<>();
+        for (GraphLink link : oldLinks) {
+            if (!newLinks.contains(link)) removed.add(link);
+        }
+        for (GraphLink link : newLinks) {
+            if (!oldLinks.contains(link)) added.add(link);
+        }
+
+        // Removals first, so that additions never relax through a link that no longer exists
+        for (ShortestPaths sp : paths) {
+            if (sp == null) continue;
+            boolean changed = false;
+            for (GraphLink link : removed) {
+                changed |= sp.removeLink(link);
+            }
+            for (GraphLink link : added) {
+                changed |= sp.addLink(u, link);
+            }
+            if (changed) {
+                sp.table = null;
+            }
+        }
+    }
+
+    private Adjacency getAdjacency() {
+        if (adjacency == null) {
+            adjacency = new Adjacency();
+        }
+        return adjacency;
+    }
+    //endregion
+
+    /**
+     * Links of all member nodes in index form. Outgoing links are used for searching, incoming links for
+     * reconnecting subtrees cut off by a removed link.
+     */
+    private class Adjacency {
+
+        private final int[] outStart;
+        private final int[] outTarget;
+        private final GraphLink[] outLink;
+
+        private final int[] inStart;
+        private final int[] inSource;
+        private final GraphLink[] inLink;
+
+        Adjacency() {
+            int n = nodes.size();
+            outStart = new int[n + 1];
+            inStart = new int[n + 1];
+
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                count += nodes.get(i).getCurrentLinks().size();
+            }
+            outTarget = new int[count];
+            outLink = new GraphLink[count];
+            inSource = new int[count];
+            inLink = new GraphLink[count];
+
+            // Outgoing links, and count incoming links per target
+            int[] inCount = new int[n + 1];
+            int e = 0;
+            for (int i = 0; i < n; i++) {
+                outStart[i] = e;
+                for (GraphLink link : nodes.get(i).getCurrentLinks()) {
+                    Integer v = indices.get(link.to().getNode());
+                    if (v == null) continue;
+                    outTarget[e] = v;
+                    outLink[e] = link;
+                    inCount[v + 1]++;
+                    e++;
+                }
+            }
+            outStart[n] = e;
+
+            // Incoming links
+            for (int i = 0; i < n; i++) {
+                inStart[i + 1] = inStart[i] + inCount[i + 1];
+            }
+            int[] fill = Arrays.copyOf(inStart, n);
+            for (int i = 0; i < n; i++) {
+                for (int k = outStart[i]; k < outStart[i + 1]; k++) {
+                    int v = outTarget[k];
+                    inSource[fill[v]] = i;
+                    inLink[fill[v]++] = outLink[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Shortest path tree from a single source node. The tree is stored in a slice of shared arrays starting at
+     * {@code base}, which is a matrix row for small networks.
+     */
+    private class ShortestPaths {
+
+        private final int source;
+        private final int[] dist;
+        private final int[] parent;
+        private final GraphLink[] parentLink;
+        private final int base;
+
+        private @Nullable GraphRouteTable table = null;
+
+        ShortestPaths(int source, int[] dist, int[] parent, GraphLink[] parentLink, int base) {
+            this.source = source;
+            this.dist = dist;
+            this.parent = parent;
+            this.parentLink = parentLink;
+            this.base = base;
+        }
+
+        int dist(int i) {
+            return dist[base + i];
+        }
+
+        int parent(int i) {
+            return parent[base + i];
+        }
+
+        GraphLink parentLink(int i) {
+            return parentLink[base + i];
+        }
+
+        private void setParent(int i, int d, int p, @Nullable GraphLink link) {
+            dist[base + i] = d;
+            parent[base + i] = p;
+            parentLink[base + i] = link;
+        }
+
+        void computeFull() {
+            int n = nodes.size();
+            Arrays.fill(dist, base, base + n, UNREACHABLE);
+            Arrays.fill(parent, base, base + n, -1);
+            Arrays.fill(parentLink, base, base + n, null);
+
+            setParent(source, 0, -1, null);
+            heap.push(0, source);
+            relax();
+        }
+
+        /**
+         * @return True if the tree changed
+         */
+        boolean removeLink(GraphLink link) {
+            Integer v = indices.get(link.to().getNode());
+            if (v == null || !link.equals(parentLink(v))) return false;
+
+            // Find every node whose path to the source runs through v
+            int n = nodes.size();
+            if (removeState == null || removeChain == null) {
+                removeState = new byte[n];
+                removeChain = new int[n];
+            }
+            byte[] state = removeState; // 0 unknown, 1 affected, 2 unaffected
+            int[] chain = removeChain;
+            Arrays.fill(state, (byte) 0);
+            state[v] = 1;
+            state[source] = 2;
+            for (int i = 0; i < n; i++) {
+                if (state[i] != 0) continue;
+                if (dist(i) == UNREACHABLE) {
+                    state[i] = 2;
+                    continue;
+                }
+                // Walk up until a known node is found, then mark the whole chain
+                int len = 0;
+                int x = i;
+                while (state[x] == 0) {
+                    chain[len++] = x;
+                    x = parent(x);
+                }
+                byte s = state[x];
+                for (int c = 0; c < len; c++) {
+                    state[chain[c]] = s;
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                if (state[i] == 1) {
+                    setParent(i, UNREACHABLE, -1, null);
+                }
+            }
+
+            // Reconnect affected nodes to the best unaffected neighbor, then continue the search from there
+            Adjacency adj = getAdjacency();
+            for (int i = 0; i < n; i++) {
+                if (state[i] != 1) continue;
+                for (int k = adj.inStart[i]; k < adj.inStart[i + 1]; k++) {
+                    int p = adj.inSource[k];
+                    if (state[p] == 1 || dist(p) == UNREACHABLE) continue;
+                    int d = dist(p) + adj.inLink[k].weight();
+                    if (d < dist(i)) {
+                        setParent(i, d, p, adj.inLink[k]);
+                    }
+                }
+                if (dist(i) != UNREACHABLE) {
+                    heap.push(dist(i), i);
+                }
+            }
+            relax();
+            return true;
+        }
+
+        /**
+         * @return True if the tree changed
+         */
+        boolean addLink(int u, GraphLink link) {
+            if (dist(u) == UNREACHABLE) return false;
+            Integer v = indices.get(link.to().getNode());
+            if (v == null) return false;
+
+            int d = dist(u) + link.weight();
+            if (d >= dist(v)) return false;
+
+            setParent(v, d, u, link);
+            heap.push(d, v);
+            relax();
+            return true;
+        }
+
+        private void relax() {
+            Adjacency adj = getAdjacency();
+            while (!heap.isEmpty()) {
+                long e = heap.pop();
+                int d = (int) (e >>> 32);
+                int u = (int) e;
+                if (d != dist(u)) continue; // Stale entry
+
+                for (int k = adj.outStart[u]; k < adj.outStart[u + 1]; k++) {
+                    int v = adj.outTarget[k];
+                    int nd = d + adj.outLink[k].weight();
+                    if (nd < dist(v)) {
+                        setParent(v, nd, u, adj.outLink[k]);
+                        heap.push(nd, v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Route table backed by a shortest path tree. Destinations are sorted once on first use, and routes are only
+     * created for destinations that are iterated.
+     */
+    private class RouteTableView implements GraphRouteTable {
+
+        private final ShortestPaths sp;
+
+        private @Nullable int[] order = null;
+        private @Nullable byte[] firstDirs = null;
+        private @Nullable GraphRoute[] routes = null;
+        private @Nullable List<GraphNode> destinations = null;
+
+        RouteTableView(ShortestPaths sp) {
+            this.sp = sp;
+        }
+
+        private int[] getOrder() {
+            if (order == null) {
+                int n = nodes.size();
+                long[] keys = new long[n];
+                int count = 0;
+                for (int i = 0; i < n; i++) {
+                    if (i != sp.source && sp.dist(i) != UNREACHABLE) {
+                        keys[count++] = (long) sp.dist(i) << 32 | i;
+                    }
+                }
+                Arrays.sort(keys, 0, count);
+
+                order = new int[count];
+                for (int k = 0; k < count; k++) {
+                    order[k] = (int) keys[k];
+                }
+            }
+            return order;
+        }
+
+        private int getFirstDir(int i) {
+            if (firstDirs == null) {
+                firstDirs = new byte[nodes.size()];
+                Arrays.fill(firstDirs, (byte) -1);
+            }
+            if (firstDirs[i] != -1) return firstDirs[i];
+
+            // Walk up to the first hop, or a node already resolved
+            int x = i;
+            while (firstDirs[x] == -1 && sp.parent(x) != sp.source) {
+                x = sp.parent(x);
+            }
+            byte dir = firstDirs[x] != -1 ? firstDirs[x] : (byte) sp.parentLink(x).direction();
+            for (int y = i; y != x; y = sp.parent(y)) {
+                firstDirs[y] = dir;
+            }
+            firstDirs[x] = dir;
+            return dir;
+        }
+
+        private GraphRoute getRoute(int i) {
+            if (routes == null) {
+                routes = new GraphRoute[nodes.size()];
+            }
+            if (routes[i] != null) return routes[i];
+
+            // Collect the chain of routes not yet built, then build them from the start outwards
+            int[] chain = new int[8];
+            int len = 0;
+            for (int x = i; x != sp.source && routes[x] == null; x = sp.parent(x)) {
+                if (len == chain.length) chain = Arrays.copyOf(chain, len * 2);
+                chain[len++] = x;
+            }
+            GraphNode start = nodes.get(sp.source);
+            for (int c = len - 1; c >= 0; c--) {
+                int x = chain[c];
+                int p = sp.parent(x);
+                GraphLink link = sp.parentLink(x);
+                routes[x] = p == sp.source ?
+                        GraphRoute.begin(start, nodes.get(x), link.direction(), link.weight()) :
+                        routes[p].append(nodes.get(x), link.direction(), link.weight());
+            }
+            return routes[i];
+        }
+
+        @Override
+        public List<GraphRoute> getPathsTo(GraphNode destination) {
+            Integer i = indices.get(destination);
+            if (i == null || i == sp.source || sp.dist(i) == UNREACHABLE) return Collections.emptyList();
+            return Collections.singletonList(getRoute(i));
+        }
+
+        @Override
+        public Iterator<GraphRoute> routeIteratorInDirection(int direction) {
+            return new RouteIterator(direction);
+        }
+
+        @Override
+        public List<GraphNode> getDestinations() {
+            if (destinations == null) {
+                int[] order = getOrder();
+                List<GraphNode> list = new ArrayList<>(order.length);
+                for (int i : order) {
+                    list.add(nodes.get(i));
+                }
+                destinations = Collections.unmodifiableList(list);
+            }
+            return destinations;
+        }
+
+        @Override
+        public Iterator<GraphRoute> routeIterator() {
+            return new RouteIterator(-1);
+        }
+
+        private class RouteIterator implements Iterator<GraphRoute> {
+
+            private final int[] order = getOrder();
+            private final int direction;
+            private int next = -1;
+
+            RouteIterator(int direction) {
+                this.direction = direction;
+                advance();
+            }
+
+            private void advance() {
+                next++;
+                if (direction == -1) return;
+                while (next < order.length && getFirstDir(order[next]) != direction) {
+                    next++;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < order.length;
+            }
+
+            @Override
+            public GraphRoute next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                GraphRoute route = getRoute(order[next]);
+                advance();
+                return route;
+            }
+        }
+    }
+
+    /**
+     * Binary min-heap of (distance, node) pairs packed into longs.
+     */
+    private static class LongHeap {
+
+        private long[] heap = new long[16];
+        private int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int dist, int node) {
+            if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+            long e = (long) dist << 32 | (node & 0xFFFFFFFFL);
+            int i = size++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (heap[p] <= e) break;
+                heap[i] = heap[p];
+                i = p;
+            }
+            heap[i] = e;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= size) break;
+                if (c + 1 < size && heap[c + 1] < heap[c]) c++;
+                if (heap[c] >= last) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+}
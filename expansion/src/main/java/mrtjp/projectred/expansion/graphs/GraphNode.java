@@ -1,5 +1,7 @@
 package mrtjp.projectred.expansion.graphs;
 
+import mrtjp.projectred.core.Configurator;
+
 import javax.annotation.Nullable;
 import java.util.LinkedList;
 import java.util.List;
@@ -17,6 +19,7 @@ public class GraphNode {
     private boolean linksNeedRefresh = false;
 
     private @Nullable GraphRouteTable routeTable;
+    private @Nullable GraphNetwork network;
 
     public GraphNode(GraphContainer container) {
         this.container = container;
@@ -38,17 +41,67 @@ public class GraphNode {
     }
 
     public GraphRouteTable getRouteTable() {
+        if (Configurator.incrementalTubeRoutes) {
+            // Apply pending link changes anywhere in the network. May invalidate it, in which case it is rebuilt
+            GraphNetwork network = getNetwork();
+            while (!network.refreshLinks()) {
+                network = getNetwork();
+            }
+            return network.getRouteTable(this);
+        }
+
         if (routeTable == null) {
             routeTable = new GraphRoutePathfinder(this).result();
         }
         return routeTable;
     }
 
+    public GraphNetwork getNetwork() {
+        getLinks();
+        if (network == null || !network.isValid()) {
+            network = GraphNetwork.build(this);
+        }
+        return network;
+    }
+
+    void setNetwork(GraphNetwork network) {
+        if (this.network != null && this.network != network) {
+            this.network.invalidate();
+        }
+        this.network = network;
+    }
+
+    void clearNetwork(GraphNetwork network) {
+        if (this.network == network) {
+            this.network = null;
+        }
+    }
+
+    private void invalidateNetwork() {
+        if (network != null) {
+            network.invalidate();
+        }
+    }
+
+    /**
+     * @return Current links without refreshing them
+     */
+    List<GraphLink> getCurrentLinks() {
+        return links;
+    }
+
+    boolean needsLinkRefresh() {
+        return linksNeedRefresh;
+    }
+
     public Optional<List<GraphLink>> getLinksIfPresent() {
         return linksNeedRefresh ? Optional.empty() : Optional.of(links);
     }
 
     public Optional<GraphRouteTable> getRouteTableIfPresent() {
+        if (Configurator.incrementalTubeRoutes) {
+            return network == null || !network.isValid() ? Optional.empty() : network.getRouteTableIfPresent(this);
+        }
         return routeTable == null ? Optional.empty() : Optional.of(routeTable);
     }
 
@@ -62,8 +115,13 @@ public class GraphNode {
     }
 
     public void markLinksChanged() {
+        // Network only needs to hear about the first mark until the node is refreshed
+        if (!linksNeedRefresh && network != null) {
+            network.markPendingRefresh(this);
+        }
         linksNeedRefresh = true;
         routeTable = null;
+        container.onNodeRefreshRequested();
     }
 
     public void markRouteTableChanged() {
@@ -86,6 +144,8 @@ public class GraphNode {
     }
 
     public int onRemoved() {
+        invalidateNetwork();
+
         // Actively search and force-notify all adjacent links
         var pathfinder = new GraphLinkPathfinder(container);
         var result = pathfinder.result();
@@ -107,6 +167,7 @@ public class GraphNode {
 
         if (!wasActive && isActive) { // Node is now active
             LOGGER.debug("node {} going active", this.container.hashCode());
+            invalidateNetwork();
 
             assert links.isEmpty(); // Should be empty if redundant
 
@@ -121,6 +182,7 @@ public class GraphNode {
 
         } else if (wasActive && !isActive) { // Node is now inactive
             LOGGER.debug("node {} going inactive", this.container.hashCode());
+            invalidateNetwork();
 
             if (!links.isEmpty()) {
                 var oldLinks = links;
@@ -140,6 +202,9 @@ public class GraphNode {
             if (!linksEqual(links, newLinks)) {
                 var oldLinks = links;
                 links = newLinks;
+                if (network != null && network.isValid()) {
+                    network.onLinksChanged(this, oldLinks, newLinks);
+                }
                 invalidateRoutes(links);
                 notifyChangedLinks(oldLinks, links);
                 return true;
@@ -169,6 +234,8 @@ public class GraphNode {
     }
 
     private void invalidateRoutes(List<GraphLink> links) {
+        if (Configurator.incrementalTubeRoutes) return; // Network repairs its own routes
+
         var allNodes = new GraphNodePathfinder(links.stream().map(l -> l.to().getNode()).toList()).result();
         var start = links.stream().mapToInt(l -> l.to().hashCode()).toArray();
         var res = allNodes.stream().mapToInt(n -> n.container.hashCode()).toArray();
@@ -1,11 +1,121 @@
 package mrtjp.projectred.expansion.graphs;
 
+import javax.annotation.Nullable;
+import java.util.LinkedList;
 import java.util.List;
 
-public record GraphRoute(GraphNode start, GraphNode end, int weight, List<GraphRouteEdge> edges) {
+/**
+ * Route from a start node to an end node. Routes are stored as a chain of parent routes, so a route that extends
+ * another shares all of its edges instead of copying them. Use {@link #edges()} to get the full edge list.
+ */
+public final class GraphRoute {
 
+    private final GraphNode start;
+    private final GraphNode end;
+    private final int weight;
+    private final int direction;
+
+    // Last edge of this route, leading from parent's end (or start) to end
+    private final @Nullable GraphRoute parent;
+    private final int lastDir;
+    private final int lastWeight;
+
+    private final int length;
+    private final int hash;
+
+    private GraphRoute(GraphNode start, GraphNode end, @Nullable GraphRoute parent, int lastDir, int lastWeight) {
+        this.start = start;
+        this.end = end;
+        this.parent = parent;
+        this.lastDir = lastDir;
+        this.lastWeight = lastWeight;
+        this.weight = parent == null ? lastWeight : parent.weight + lastWeight;
+        this.direction = parent == null ? lastDir : parent.direction;
+        this.length = parent == null ? 1 : parent.length + 1;
+
+        int h = parent == null ? start.hashCode() : parent.hash;
+        h = 31 * h + end.hashCode();
+        h = 31 * h + lastDir;
+        this.hash = 31 * h + lastWeight;
+    }
+
+    public static GraphRoute begin(GraphNode start, GraphNode end, int dir, int weight) {
+        return new GraphRoute(start, end, null, dir, weight);
+    }
+
+    public GraphRoute append(GraphNode next, int dir, int weight) {
+        return new GraphRoute(start, next, this, dir, weight);
+    }
+
+    public GraphNode start() {
+        return start;
+    }
+
+    public GraphNode end() {
+        return end;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * @return Direction of the first edge out of the start node
+     */
     public int direction() {
-        return edges.get(0).dir();
+        return direction;
+    }
+
+    /**
+     * @return Number of edges in this route
+     */
+    public int length() {
+        return length;
+    }
+
+    public @Nullable GraphRoute parent() {
+        return parent;
+    }
+
+    /**
+     * @return The last edge of this route
+     */
+    public GraphRouteEdge lastEdge() {
+        return new GraphRouteEdge(parent == null ? start : parent.end, end, lastDir, lastWeight);
+    }
+
+    /**
+     * Builds the full list of edges from start to end. This walks the entire route, so avoid calling it
+     * in hot paths.
+     */
+    public List<GraphRouteEdge> edges() {
+        LinkedList<GraphRouteEdge> edges = new LinkedList<>();
+        for (GraphRoute r = this; r != null; r = r.parent) {
+            edges.addFirst(r.lastEdge());
+        }
+        return edges;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GraphRoute other)) return false;
+        if (hash != other.hash || length != other.length || start != other.start) return false;
+
+        // Walk both chains until they share a tail
+        GraphRoute a = this;
+        GraphRoute b = other;
+        while (a != b) {
+            if (a.end != b.end || a.lastDir != b.lastDir || a.lastWeight != b.lastWeight) return false;
+            a = a.parent;
+            b = b.parent;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     @Override
@@ -14,7 +124,7 @@ public record GraphRoute(GraphNode start, GraphNode end, int weight, List<GraphR
                 "start=" + start.hashCode() +
                 ", end=" + end.hashCode() +
                 ", weight=" + weight +
-                ", edges=" + edges +
+                ", edges=" + edges() +
                 '}';
     }
 }
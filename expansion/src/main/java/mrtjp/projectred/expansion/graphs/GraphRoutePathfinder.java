@@ -25,7 +25,7 @@ public class GraphRoutePathfinder {
 
     private void openInitial(GraphNode startNode) {
         for (var link : startNode.getLinks()) {
-            var route = beginRoute(startNode, link.to().getNode(), link.direction(), link.weight());
+            var route = GraphRoute.begin(startNode, link.to().getNode(), link.direction(), link.weight());
             open.add(route);
             openSet.add(route);
         }
@@ -45,7 +45,7 @@ public class GraphRoutePathfinder {
 
         // See if prev connects to more nodes
         for (var link : prev.end().getLinks()) {
-            GraphRoute next = appendToRoute(prev, link.to().getNode(), link.direction(), link.weight());
+            GraphRoute next = prev.append(link.to().getNode(), link.direction(), link.weight());
             if (!openSet.contains(next) && !closedSet.contains(next)) {
                 open.add(next);
                 openSet.add(next);
@@ -85,16 +85,6 @@ public class GraphRoutePathfinder {
 
     public GraphRouteTable result() {
         while (!isFinished()) step(); // Finish if needed
-        return new GraphRouteTable(routeMap, directionMap, destinations, routes);
-    }
-
-    private static GraphRoute beginRoute(GraphNode start, GraphNode end, int dir, int weight) {
-        return new GraphRoute(start, end, weight, List.of(new GraphRouteEdge(start, end, dir, weight)));
-    }
-
-    private static GraphRoute appendToRoute(GraphRoute route, GraphNode next, int dir, int weight) {
-        List<GraphRouteEdge> newEdges = new LinkedList<>(route.edges());
-        newEdges.add(new GraphRouteEdge(route.end(), next, dir, weight));
-        return new GraphRoute(route.start(), next, route.weight() + weight, newEdges);
+        return new MappedGraphRouteTable(routeMap, directionMap, destinations, routes);
     }
 }
@@ -1,48 +1,30 @@
 package mrtjp.projectred.expansion.graphs;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
-public class GraphRouteTable {
-
-    // Map of destinations and all paths to get there. Paths are sorted by weight
-    private final HashMap<GraphNode, List<GraphRoute>> table;
-
-    // Weight-sorted routes by hop direction
-    private final HashMap<Integer, List<GraphRoute>> directions;
-
-    // List of all unique destinations sorted by shortest path
-    private final List<GraphNode> destinations;
-
-    // List of all routes sorted by weight
-    private final List<GraphRoute> routes;
-
-
-    public GraphRouteTable(HashMap<GraphNode, List<GraphRoute>> table, HashMap<Integer, List<GraphRoute>> directions, List<GraphNode> destinations, List<GraphRoute> routes) {
-        this.table = table;
-        this.directions = directions;
-        this.destinations = destinations;
-        this.routes = routes;
-    }
-
-    public List<GraphRoute> getPathsTo(GraphNode destination) {
-        return table.get(destination);
-    }
-
-    public Iterator<GraphRoute> routeIteratorInDirection(int direction) {
-        if (!directions.containsKey(direction)) {
-            return Collections.emptyIterator();
-        }
-        return directions.get(direction).iterator();
-    }
-
-    public List<GraphNode> getDestinations() {
-        return destinations;
-    }
-
-    public Iterator<GraphRoute> routeIterator() {
-        return routes.iterator();
-    }
+/**
+ * Routes from a single start node to every reachable node in its network.
+ */
+public interface GraphRouteTable {
+
+    /**
+     * @return All routes to the destination, sorted by weight
+     */
+    List<GraphRoute> getPathsTo(GraphNode destination);
+
+    /**
+     * @return Weight-sorted routes whose first hop leaves the start node in the given direction
+     */
+    Iterator<GraphRoute> routeIteratorInDirection(int direction);
+
+    /**
+     * @return All unique destinations sorted by shortest route
+     */
+    List<GraphNode> getDestinations();
+
+    /**
+     * @return All routes sorted by weight
+     */
+    Iterator<GraphRoute> routeIterator();
 }
@@ -0,0 +1,55 @@
+package mrtjp.projectred.expansion.graphs;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Route table backed by pre-built maps of routes. Used by {@link GraphRoutePathfinder}.
+ */
+public class MappedGraphRouteTable implements GraphRouteTable {
+
+    // Map of destinations and all paths to get there. Paths are sorted by weight
+    private final HashMap<GraphNode, List<GraphRoute>> table;
+
+    // Weight-sorted routes by hop direction
+    private final HashMap<Integer, List<GraphRoute>> directions;
+
+    // List of all unique destinations sorted by shortest path
+    private final List<GraphNode> destinations;
+
+    // List of all routes sorted by weight
+    private final List<GraphRoute> routes;
+
+
+    public MappedGraphRouteTable(HashMap<GraphNode, List<GraphRoute>> table, HashMap<Integer, List<GraphRoute>> directions, List<GraphNode> destinations, List<GraphRoute> routes) {
+        this.table = table;
+        this.directions = directions;
+        this.destinations = destinations;
+        this.routes = routes;
+    }
+
+    @Override
+    public List<GraphRoute> getPathsTo(GraphNode destination) {
+        return table.getOrDefault(destination, Collections.emptyList());
+    }
+
+    @Override
+    public Iterator<GraphRoute> routeIteratorInDirection(int direction) {
+        if (!directions.containsKey(direction)) {
+            return Collections.emptyIterator();
+        }
+        return directions.get(direction).iterator();
+    }
+
+    @Override
+    public List<GraphNode> getDestinations() {
+        return destinations;
+    }
+
+    @Override
+    public Iterator<GraphRoute> routeIterator() {
+        return routes.iterator();
+    }
+}
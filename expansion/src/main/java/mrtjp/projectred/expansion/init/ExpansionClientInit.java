@@ -2,6 +2,7 @@ package mrtjp.projectred.expansion.init;
 
 import codechicken.lib.render.block.BlockRenderingRegistry;
 import codechicken.multipart.api.MultipartClientRegistry;
+import mrtjp.projectred.expansion.CraftingRecipeCache;
 import mrtjp.projectred.expansion.GraphDebugManager;
 import mrtjp.projectred.expansion.MovementManager;
 import mrtjp.projectred.expansion.TubeType;
@@ -40,6 +41,9 @@ public class ExpansionClientInit {
         // GraphDebugManager hooks
         NeoForge.EVENT_BUS.addListener(GraphDebugManager::onRenderLevelStage);
 
+        // CraftingRecipeCache hooks
+        NeoForge.EVENT_BUS.addListener(CraftingRecipeCache::onRecipesUpdated);
+
         // Register sprites
         modEventBus.addListener(FrameModelRenderer::onTextureStitchEvent);
         modEventBus.addListener(FrameMotorBlockRenderer::onTextureStitchEvent);
@@ -1,6 +1,5 @@
 package mrtjp.projectred.expansion.part;
 
-import codechicken.multipart.api.part.TickablePart;
 import mrtjp.projectred.core.CenterLookup;
 import mrtjp.projectred.expansion.TubeType;
 import mrtjp.projectred.expansion.GraphDebugManager;
@@ -9,7 +8,7 @@ import mrtjp.projectred.expansion.graphs.GraphNode;
 import net.minecraft.world.level.chunk.LevelChunk;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class GraphContainerTubePart extends RedstoneTubePart implements TickablePart, GraphContainer {
+public abstract class GraphContainerTubePart extends RedstoneTubePart implements GraphContainer {
 
     protected final GraphNode node = new GraphNode(this);
 
@@ -41,7 +40,7 @@ public abstract class GraphContainerTubePart extends RedstoneTubePart implements
     public void onChunkLoad(LevelChunk chunk) {
         super.onChunkLoad(chunk);
         if (!level().isClientSide) {
-            // We will rebuild on next tick
+            // We will rebuild on next scheduled tick
             node.markLinksChanged();
         }
     }
@@ -71,13 +70,6 @@ public abstract class GraphContainerTubePart extends RedstoneTubePart implements
     }
     //endregion
 
-    @Override
-    public void tick() {
-        if (!level().isClientSide()) {
-            node.onTick();
-        }
-    }
-
     protected void onRemovalSeveredLink() {
     }
 
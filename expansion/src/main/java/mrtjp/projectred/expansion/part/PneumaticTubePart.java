@@ -3,8 +3,9 @@ package mrtjp.projectred.expansion.part;
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import codechicken.lib.vec.Vector3;
-import codechicken.multipart.api.part.TickablePart;
+import codechicken.multipart.api.part.NeighborTileChangePart;
 import codechicken.multipart.block.TileMultipart;
+import it.unimi.dsi.fastutil.ints.IntList;
 import mrtjp.projectred.api.IConnectable;
 import mrtjp.projectred.core.CenterLookup;
 import mrtjp.projectred.expansion.TubeType;
@@ -16,6 +17,7 @@ import mrtjp.projectred.expansion.pneumatics.*;
 import mrtjp.projectred.lib.InventoryLib;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.sounds.SoundSource;
@@ -26,25 +28,26 @@ import net.neoforged.api.distmarker.OnlyIn;
 import net.neoforged.fml.loading.FMLEnvironment;
 import net.neoforged.neoforge.capabilities.Capabilities;
 
-import java.util.Collection;
-import java.util.Collections;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
 
 import static mrtjp.projectred.core.client.particle.ParticleAction.*;
 import static mrtjp.projectred.expansion.ProjectRedExpansion.LOGGER;
 
-public class PneumaticTubePart extends GraphContainerTubePart implements PneumaticTransportContainer, GraphContainer, TickablePart {
+public class PneumaticTubePart extends GraphContainerTubePart implements PneumaticTransportContainer, GraphContainer, NeighborTileChangePart {
 
-    private static final int KEY_NEW_PAYLOAD = 0x10;
-    private static final int KEY_PAYLOAD_UPDATE = 0x11;
-    private static final int KEY_PAYLOAD_HANDOFF = 0x12;
-    private static final int KEY_PAYLOAD_REMOVE = 0x13;
+    private static final int KEY_PAYLOAD_BATCH = 0x10;
     private static final int KEY_NODE_LINKS_UPDATE = 0x14;
     private static final int KEY_NODE_STATE_UPDATE = 0x15;
 
     public final ClientSideLinkCache linkCache = new ClientSideLinkCache();
     private final PneumaticTransport transport = new PneumaticTransport(this);
+    private final PneumaticExitCache exitCache = new PneumaticExitCache();
+    private final PneumaticPayloadBatch payloadBatch = new PneumaticPayloadBatch();
+    private final PneumaticTubeScheduler.Ticket ticket = new PneumaticTubeScheduler.Ticket(this::onScheduledTick);
+
+    private boolean ticking = false;
 
     private int lastRoundRobinDir = -1;
 
@@ -88,6 +91,7 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         super.readDesc(packet);
         transport.readDesc(packet);
         linkCache.readDesc(packet);
+        scheduleTick();
     }
     //endregion
 
@@ -95,59 +99,40 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
     @Override
     protected void read(MCDataInput packet, int key) {
         switch (key) {
-            case KEY_NEW_PAYLOAD -> {
-                int id = packet.readInt();
-                PneumaticTubePayload payload = new PneumaticTubePayload();
-                payload.readDesc(packet);
-                transport.addPayload(id, payload);
-            }
-            case KEY_PAYLOAD_UPDATE -> {
-                int id = packet.readInt();
-                PneumaticTubePayload payload = transport.getPayload(id);
-                if (payload == null) {
-                    LOGGER.warn("Pneumatic tube got update for non-existent payload");
-                    payload = new PneumaticTubePayload(); // For read-through
-                }
-                payload.readDesc(packet);
-            }
-            case KEY_PAYLOAD_HANDOFF -> readPayloadHandoff(packet);
-            case KEY_PAYLOAD_REMOVE -> readPayloadRemoved(packet);
+            case KEY_PAYLOAD_BATCH -> readPayloadBatch(packet);
             case KEY_NODE_LINKS_UPDATE -> linkCache.readLinkUpdate(packet);
             case KEY_NODE_STATE_UPDATE -> linkCache.readStateUpdate(packet);
             default -> super.read(packet, key);
         }
     }
 
+    // Payload events are batched and sent once at the end of the tick. Events outside of tick are sent immediately.
     private void sendNewPayload(int id, PneumaticTubePayload payload) {
-        sendUpdate(KEY_NEW_PAYLOAD, out -> {
-            out.writeInt(id);
-            payload.writeDesc(out);
-        });
+        payloadBatch.addNew(id, payload);
+        if (!ticking) flushPayloadBatch();
     }
 
     private void sendPayloadUpdate(int id, PneumaticTubePayload payload) {
-        sendUpdate(KEY_PAYLOAD_UPDATE, out -> {
-            out.writeInt(id);
-            payload.writeDesc(out);
-        });
-    }
-
-    private void sendPayloadHandoff(int id, PneumaticTubePayload payload, int newId, int dir) {
-        sendUpdate(KEY_PAYLOAD_HANDOFF, out -> {
-            out.writeInt(id);
-            payload.writeDesc(out);
-            out.writeInt(newId);
-            out.writeByte(dir);
-        });
-    }
-
-    private void sendPayloadRemoved(Collection<Integer> ids) {
-        sendUpdate(KEY_PAYLOAD_REMOVE, out -> {
-            out.writeInt(ids.size());
-            for (int id : ids) {
-                out.writeInt(id);
-            }
-        });
+        payloadBatch.addUpdate(id, payload);
+        if (!ticking) flushPayloadBatch();
+    }
+
+    private void sendPayloadHandoff(int id, PneumaticTubePayload payload, int newId, int dir, @Nullable PneumaticTubePayload merged) {
+        payloadBatch.addHandoff(id, payload, newId, dir, merged);
+        if (!ticking) flushPayloadBatch();
+    }
+
+    private void sendPayloadRemoved(IntList ids) {
+        for (int i = 0; i < ids.size(); i++) {
+            payloadBatch.addRemove(ids.getInt(i));
+        }
+        if (!ticking) flushPayloadBatch();
+    }
+
+    private void flushPayloadBatch() {
+        if (!payloadBatch.isEmpty()) {
+            sendUpdate(KEY_PAYLOAD_BATCH, payloadBatch::write);
+        }
     }
 
     private void sendNodeLinkUpdate() {
@@ -158,36 +143,78 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         sendUpdate(KEY_NODE_STATE_UPDATE, linkCache::writeStateUpdate);
     }
 
-    private void readPayloadHandoff(MCDataInput packet) {
-        int id = packet.readInt();
+    private void readPayloadBatch(MCDataInput packet) {
+        int count = packet.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int event = packet.readUByte();
+            int id = packet.readVarInt();
+            switch (event) {
+                case PneumaticPayloadBatch.EVENT_NEW -> {
+                    PneumaticTubePayload payload = new PneumaticTubePayload();
+                    payload.readDesc(packet);
+                    transport.addPayload(id, payload);
+                }
+                case PneumaticPayloadBatch.EVENT_UPDATE -> {
+                    PneumaticTubePayload payload = transport.getPayload(id);
+                    if (payload == null) {
+                        LOGGER.warn("Pneumatic tube got update for non-existent payload");
+                        payload = new PneumaticTubePayload(); // For read-through
+                    }
+                    payload.readState(packet);
+                }
+                case PneumaticPayloadBatch.EVENT_HANDOFF -> readPayloadHandoff(packet, id);
+                case PneumaticPayloadBatch.EVENT_REMOVE -> transport.removePayload(id);
+                default -> throw new IllegalArgumentException("Unknown payload event " + event);
+            }
+        }
+    }
+
+    private void readPayloadHandoff(MCDataInput packet, int id) {
         PneumaticTubePayload payload = transport.removePayload(id);
         if (payload == null) {
             LOGGER.warn("Pneumatic tube got handoff for non-existent payload");
             payload = new PneumaticTubePayload(); // For read-through
         }
-        payload.readDesc(packet);
+        payload.readState(packet);
 
-        int newId = packet.readInt();
+        int newId = packet.readVarInt();
         int side = packet.readUByte();
+        if (packet.readBoolean()) {
+            // Merged into an existing payload. Replace it with one carrying the full merged stack
+            ItemStack merged = packet.readItemStack();
+            PneumaticTubePayload mergedPayload = new PneumaticTubePayload(merged);
+            mergedPayload.setProgress(payload.getProgress());
+            mergedPayload.setSpeed(payload.getSpeed());
+            mergedPayload.setInputSide(payload.getInputSide());
+            mergedPayload.setOutputSide(payload.getOutputSide());
+            payload = mergedPayload;
+        }
 
         CenterLookup lookup = CenterLookup.lookupStraightCenter(level(), pos(), side);
         if (lookup.part instanceof PneumaticTransportContainer ptc) {
             ptc.getPneumaticTransport().addPayload(newId, payload);
         }
     }
-
-    private void readPayloadRemoved(MCDataInput packet) {
-        int count = packet.readInt();
-        for (int i = 0; i < count; i++) {
-            transport.removePayload(packet.readInt());
-        }
-    }
     //endregion
 
     //region MultiPart events
+    @Override
+    public void onWorldJoin() {
+        super.onWorldJoin();
+        scheduleTick();
+    }
+
+    @Override
+    public void onWorldSeparate() {
+        super.onWorldSeparate();
+        PneumaticTubeScheduler.getInstance(level()).cancel(ticket);
+        transport.resetTime();
+    }
+
     @Override
     public void onRemoved() {
         super.onRemoved();
+        PneumaticTubeScheduler.getInstance(level()).cancel(ticket);
         if (!level().isClientSide) {
             for (var i : transport.getPayloads()) {
                 TileMultipart.dropItem(i.getItemStack(), level(), Vector3.fromTileCenter(tile()));
@@ -195,10 +222,29 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         }
     }
 
+    @Override
+    public void onNeighborBlockChanged(BlockPos from) {
+        super.onNeighborBlockChanged(from);
+        exitCache.clear();
+    }
+
+    @Override
+    public void onNeighborTileChanged(Direction side, boolean weak) {
+        // Inventory contents changed
+        exitCache.invalidate(side.ordinal());
+    }
+
+    @Override
+    public boolean weakTileChanges() {
+        return false;
+    }
+
     @Override
     public void maskChangeEvent(boolean internalChange, boolean externalChange) {
         super.maskChangeEvent(internalChange, externalChange);
         if (internalChange || externalChange) {
+            exitCache.clear();
+
             // Drop items that were previously in closed off connections
             var removed = transport.removePayloadsConditionally(p -> {
                 if (!maskConnects(p.getCurrentSide())) {
@@ -211,11 +257,49 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
             sendPayloadRemoved(removed);
         }
     }
+    //endregion
 
-    @Override
-    public void tick() {
-        super.tick();
-        transport.tick();
+    //region Scheduling
+    private void onScheduledTick(long time) {
+        // Freeze payloads while the chunk is not block-ticking (i.e. lazy border chunks), and check again next tick.
+        // Resetting the transport clock restarts movement from where it stopped once the chunk ticks again.
+        if (!level().shouldTickBlocksAt(pos())) {
+            transport.resetTime();
+            PneumaticTubeScheduler.getInstance(level()).schedule(ticket, time + 1);
+            return;
+        }
+
+        ticking = true;
+        if (!level().isClientSide) {
+            node.onTick();
+        }
+        transport.tick(time);
+        ticking = false;
+        if (!level().isClientSide) {
+            flushPayloadBatch();
+        }
+        scheduleTick();
+    }
+
+    /**
+     * Schedules the next tick of this tube. Server ticks only when a payload reaches its next boundary
+     * or the node needs refreshing. Clients tick every tick while they have payloads, so rendered movement
+     * is smooth.
+     */
+    private void scheduleTick() {
+        if (!hasTile()) return;
+
+        long now = level().getGameTime();
+        long next;
+        if (level().isClientSide) {
+            next = transport.isEmpty() ? Long.MAX_VALUE : now + 1;
+        } else {
+            next = transport.getNextEventTime(); // Node refreshes are scheduled by onNodeRefreshRequested
+        }
+
+        if (next != Long.MAX_VALUE) {
+            PneumaticTubeScheduler.getInstance(level()).schedule(ticket, Math.max(next, now));
+        }
     }
     //endregion
 
@@ -315,6 +399,13 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         }
     }
 
+    @Override
+    public void onNodeRefreshRequested() {
+        if (hasTile() && !level().isClientSide) {
+            PneumaticTubeScheduler.getInstance(level()).schedule(ticket, level().getGameTime() + 1);
+        }
+    }
+
     @Override
     public boolean requiresActiveNode() {
         int connectedTubes = 0;
@@ -426,6 +517,16 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         }
     }
 
+    @Override
+    public long getTransportTime() {
+        return hasTile() ? level().getGameTime() : PneumaticTransport.NO_TIME;
+    }
+
+    @Override
+    public void onTransportScheduleChanged() {
+        scheduleTick();
+    }
+
     @Override
     public boolean onPayloadReachedOutput(int id, PneumaticTubePayload payload) {
         if (level().isClientSide) return false; //Client will keep item until handoff packet
@@ -440,8 +541,10 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
             payload.resetOutput();
             payload.resetProgress();
 
-            int newId = ptc.getPneumaticTransport().addPayload(payload);
-            sendPayloadHandoff(id, payload, newId, side);
+            PneumaticTransport next = ptc.getPneumaticTransport();
+            int newId = next.addPayload(payload);
+            PneumaticTubePayload carrier = next.getPayload(newId);
+            sendPayloadHandoff(id, payload, newId, side, carrier == payload ? null : carrier);
             return true;
         }
 
@@ -450,7 +553,7 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         // Pass to device
         if (lookup.tile instanceof PneumaticTransportDevice p) {
             if (p.insertPayload(lookup.otherDirection, payload)) {
-                sendPayloadRemoved(Collections.singletonList(id));
+                sendPayloadRemoved(IntList.of(id));
                 return true;
             }
         }
@@ -458,7 +561,7 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         // Pass to worldly container or item handler
         if (lookup.tile instanceof WorldlyContainer wc) {
             if (InventoryLib.injectWorldly(wc, payload.getItemStack(), lookup.otherDirection, false)) {
-                sendPayloadRemoved(Collections.singletonList(id));
+                sendPayloadRemoved(IntList.of(id));
                 return true;
             }
         }
@@ -467,12 +570,13 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         var itemCap = level().getCapability(Capabilities.ItemHandler.BLOCK, lookup.tile.getBlockPos(), Direction.values()[lookup.otherDirection]);
         if (itemCap != null) {
             if (InventoryLib.injectItemHandler(itemCap, payload.getItemStack(), false)) {
-                sendPayloadRemoved(Collections.singletonList(id));
+                sendPayloadRemoved(IntList.of(id));
                 return true;
             }
         }
 
         // Either nothing was passed, or only partial pass (payload would've been modified). Bounce it back
+        exitCache.invalidate(payload.getOutputSide());
         int tmp = payload.getInputSide();
         payload.setInputSide(payload.getOutputSide());
         payload.setOutputSide(tmp);
@@ -487,19 +591,36 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
             return false;
         }
 
+        // Inventory results are cached. Devices are always asked directly, so they never have entries
+        ItemStack stack = payload.getItemStack();
+        long time = level().getGameTime();
+        Boolean cached = exitCache.get(side, stack, time);
+        if (cached != null) return cached;
+
         CenterLookup lookup = CenterLookup.lookupStraightCenter(level(), pos(), side);
-        if (lookup.tile == null) return false;
+        if (lookup.tile == null) {
+            exitCache.put(side, stack, false, time);
+            return false;
+        }
 
         // Check pneumatic device
         if (lookup.tile instanceof PneumaticTransportDevice p) {
             return p.canAcceptPayload(lookup.otherDirection, payload, mode);
         }
 
+        boolean accepts = canInventoryAccept(lookup, stack);
+        exitCache.put(side, stack, accepts, time);
+        return accepts;
+    }
+
+    private boolean canInventoryAccept(CenterLookup lookup, ItemStack stack) {
+        assert lookup.tile != null;
+
         // Check worldly container
         if (lookup.tile instanceof WorldlyContainer wc) {
-            ItemStack copy = payload.getItemStack().copy();
+            ItemStack copy = stack.copy();
             InventoryLib.injectWorldly(wc, copy, lookup.otherDirection, true);
-            if (copy.getCount() < payload.getItemStack().getCount()) { // If anything was inserted
+            if (copy.getCount() < stack.getCount()) { // If anything was inserted
                 return true;
             }
         }
@@ -507,9 +628,9 @@ public class PneumaticTubePart extends GraphContainerTubePart implements Pneumat
         // Check IItemHandler cap
         var itemCap = level().getCapability(Capabilities.ItemHandler.BLOCK, lookup.tile.getBlockPos(), Direction.values()[lookup.otherDirection]);
         if (itemCap != null) {
-            ItemStack copy = payload.getItemStack().copy();
+            ItemStack copy = stack.copy();
             InventoryLib.injectItemHandler(itemCap, copy, true);
-            if (copy.getCount() < payload.getItemStack().getCount()) { // If anything was inserted
+            if (copy.getCount() < stack.getCount()) { // If anything was inserted
                 return true;
             }
         }
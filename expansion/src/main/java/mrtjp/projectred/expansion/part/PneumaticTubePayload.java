@@ -102,18 +102,27 @@ public class PneumaticTubePayload {
     }
 
     public void writeDesc(MCDataOutput output) {
+        writeState(output);
+        output.writeItemStack(itemStack);
+    }
+
+    public void readDesc(MCDataInput input) {
+        readState(input);
+        itemStack = input.readItemStack();
+    }
+
+    // Movement state only, for updates to payloads the client already has
+    public void writeState(MCDataOutput output) {
         output.writeByte(progress);
         output.writeByte(speed);
         output.writeByte(inputSide);
         output.writeByte(outputSide);
-        output.writeItemStack(itemStack);
     }
 
-    public void readDesc(MCDataInput input) {
+    public void readState(MCDataInput input) {
         progress = input.readByte();
         speed = input.readByte();
         inputSide = input.readByte();
         outputSide = input.readByte();
-        itemStack = input.readItemStack();
     }
 }
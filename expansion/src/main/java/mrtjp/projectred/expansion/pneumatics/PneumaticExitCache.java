@@ -0,0 +1,57 @@
+package mrtjp.projectred.expansion.pneumatics;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers whether the inventories next to a tube accepted an item, so route searches don't repeatedly
+ * simulate insertions into the same inventories.
+ * <p>
+ * Entries are keyed by side and item identity (item and tag, ignoring count, since an inventory that accepts
+ * part of a stack accepts any amount of it). They are dropped when the neighbour on that side changes, and
+ * expire after a short time in case an inventory changes without notifying its neighbours.
+ */
+public class PneumaticExitCache {
+
+    private static final int EXPIRY_TICKS = 20;
+    private static final int MAX_ENTRIES = 64;
+
+    private final Map<Key, Long> entries = new HashMap<>();
+
+    /**
+     * @return True or false if a valid result is cached, otherwise null
+     */
+    public @Nullable Boolean get(int side, ItemStack stack, long time) {
+        if (entries.isEmpty()) return null;
+
+        Long entry = entries.get(new Key(side, stack.getItem(), stack.getTag()));
+        if (entry == null) return null;
+
+        // Entry packs expiry time and result into one long
+        if ((entry >> 1) < time) return null;
+        return (entry & 1) != 0;
+    }
+
+    public void put(int side, ItemStack stack, boolean accepts, long time) {
+        if (entries.size() >= MAX_ENTRIES) entries.clear();
+
+        CompoundTag tag = stack.getTag();
+        Key key = new Key(side, stack.getItem(), tag == null ? null : tag.copy());
+        entries.put(key, (time + EXPIRY_TICKS) << 1 | (accepts ? 1 : 0));
+    }
+
+    public void invalidate(int side) {
+        entries.keySet().removeIf(k -> k.side == side);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private record Key(int side, Item item, @Nullable CompoundTag tag) { }
+}
@@ -0,0 +1,88 @@
+package mrtjp.projectred.expansion.pneumatics;
+
+import codechicken.lib.data.MCDataOutput;
+import mrtjp.projectred.expansion.part.PneumaticTubePayload;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects payload events of a tube so they can be sent to clients as one packet per tick.
+ * <p>
+ * Only new payloads carry their item stack. Clients already have the item for every other event, and
+ * advance progress themselves, so updates and hand-offs only carry the payload's movement state. The exception
+ * is a hand-off that was merged into an existing payload of the next tube, which carries the merged stack.
+ * The state is captured when the event is added, so events written later still describe the payload
+ * as it was at that time.
+ */
+public class PneumaticPayloadBatch {
+
+    public static final int EVENT_NEW = 0;
+    public static final int EVENT_UPDATE = 1;
+    public static final int EVENT_HANDOFF = 2;
+    public static final int EVENT_REMOVE = 3;
+
+    private final List<Event> events = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    public void addNew(int id, PneumaticTubePayload payload) {
+        events.add(Event.of(EVENT_NEW, id, payload, payload.getItemStack().copy(), -1, -1));
+    }
+
+    public void addUpdate(int id, PneumaticTubePayload payload) {
+        events.add(Event.of(EVENT_UPDATE, id, payload, ItemStack.EMPTY, -1, -1));
+    }
+
+    /**
+     * @param merged The payload that now carries the item in the next tube, if the handed-off payload was merged
+     *               into it. Null if the payload was added as is.
+     */
+    public void addHandoff(int id, PneumaticTubePayload payload, int newId, int dir, @Nullable PneumaticTubePayload merged) {
+        ItemStack stack = merged == null ? ItemStack.EMPTY : merged.getItemStack().copy();
+        events.add(Event.of(EVENT_HANDOFF, id, payload, stack, newId, dir));
+    }
+
+    public void addRemove(int id) {
+        events.add(new Event(EVENT_REMOVE, id, 0, 0, 0, 0, ItemStack.EMPTY, -1, -1));
+    }
+
+    /**
+     * Writes all events and clears the batch.
+     */
+    public void write(MCDataOutput out) {
+        out.writeVarInt(events.size());
+        for (Event e : events) {
+            out.writeByte(e.type);
+            out.writeVarInt(e.id);
+            if (e.type == EVENT_REMOVE) continue;
+
+            // Same layout as PneumaticTubePayload#writeState
+            out.writeByte(e.progress);
+            out.writeByte(e.speed);
+            out.writeByte(e.inputSide);
+            out.writeByte(e.outputSide);
+
+            if (e.type == EVENT_NEW) {
+                out.writeItemStack(e.stack);
+            } else if (e.type == EVENT_HANDOFF) {
+                out.writeVarInt(e.newId);
+                out.writeByte(e.dir);
+                out.writeBoolean(!e.stack.isEmpty());
+                if (!e.stack.isEmpty()) out.writeItemStack(e.stack);
+            }
+        }
+        events.clear();
+    }
+
+    private record Event(int type, int id, int progress, int speed, int inputSide, int outputSide, ItemStack stack, int newId, int dir) {
+        static Event of(int type, int id, PneumaticTubePayload payload, ItemStack stack, int newId, int dir) {
+            return new Event(type, id, payload.getProgress(), payload.getSpeed(), payload.getInputSide(),
+                    payload.getOutputSide(), stack, newId, dir);
+        }
+    }
+}
@@ -2,37 +2,48 @@ package mrtjp.projectred.expansion.pneumatics;
 
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import mrtjp.projectred.core.Configurator;
 import mrtjp.projectred.expansion.part.PneumaticTubePayload;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.world.item.ItemStack;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.function.Predicate;
 
 import static mrtjp.projectred.expansion.part.PneumaticTubePayload.MAX_PROGRESS;
 
 public class PneumaticTransport {
 
+    public static final long NO_TIME = Long.MIN_VALUE;
+
     private final PneumaticTransportContainer container;
 
-    private final HashMap<Integer, PneumaticTubePayload> payloads = new HashMap<>();
+    private final Int2ObjectOpenHashMap<PneumaticTubePayload> payloads = new Int2ObjectOpenHashMap<>();
+    private final IntArrayList toRemove = new IntArrayList();
 
     private int nextId = 0;
 
+    // Game time payload progress is current to. Payloads are only moved when an event is due, or when
+    // something needs to see or change them, so progress may lag behind the world between events.
+    private long lastTime = NO_TIME;
+
     public PneumaticTransport(PneumaticTransportContainer container) {
         this.container = container;
     }
 
     //region save/load
     public void save(CompoundTag tag) {
+        catchUp();
         ListTag payloadList = new ListTag();
-        for (var e : payloads.entrySet()) {
+        for (var e : payloads.int2ObjectEntrySet()) {
             CompoundTag payloadTag = new CompoundTag();
-            payloadTag.putInt("id", e.getKey());
+            payloadTag.putInt("id", e.getIntKey());
             e.getValue().save(payloadTag);
             payloadList.add(payloadTag);
         }
@@ -54,9 +65,10 @@ public class PneumaticTransport {
     }
 
     public void writeDesc(MCDataOutput packet) {
+        catchUp();
         packet.writeVarInt(payloads.size());
-        for (var e : payloads.entrySet()) {
-            packet.writeVarInt(e.getKey());
+        for (var e : payloads.int2ObjectEntrySet()) {
+            packet.writeVarInt(e.getIntKey());
             e.getValue().writeDesc(packet);
         }
     }
@@ -75,80 +87,193 @@ public class PneumaticTransport {
 
     @Nullable
     public PneumaticTubePayload removePayload(int id) {
+        catchUp();
         return payloads.remove(id);
     }
 
     @Nullable
     public PneumaticTubePayload getPayload(int id) {
+        catchUp();
         return payloads.get(id);
     }
 
     public void addPayload(int id, PneumaticTubePayload payload) {
         assert !payloads.containsValue(payload);
+        catchUp();
         payloads.put(id, payload);
+        container.onTransportScheduleChanged();
     }
 
+    /**
+     * Adds a payload under a new id. If payload stacking is enabled and an identical item is already
+     * travelling in lockstep with the new one, the new stack is merged into it instead.
+     *
+     * @return The id of the payload now carrying the item
+     */
     public int addPayload(PneumaticTubePayload payload) {
         assert !payloads.containsValue(payload);
+        catchUp();
+
+        if (Configurator.stackTubePayloads) {
+            int mergeId = findMergeTarget(payload);
+            if (mergeId != -1) {
+                ItemStack stack = payloads.get(mergeId).getItemStack();
+                stack.grow(payload.getItemStack().getCount());
+                return mergeId;
+            }
+        }
+
         int id = getNextId();
         payloads.put(id, payload);
+        container.onTransportScheduleChanged();
         return id;
     }
 
+    private int findMergeTarget(PneumaticTubePayload payload) {
+        ItemStack stack = payload.getItemStack();
+        if (!stack.isStackable()) return -1;
+
+        for (var e : Int2ObjectMaps.fastIterable(payloads)) {
+            PneumaticTubePayload p = e.getValue();
+            // Must be indistinguishable in motion, so the merged payload takes the same route
+            if (p.getProgress() == payload.getProgress() &&
+                    p.getSpeed() == payload.getSpeed() &&
+                    p.getInputSide() == payload.getInputSide() &&
+                    p.getOutputSide() == payload.getOutputSide() &&
+                    ItemStack.isSameItemSameTags(p.getItemStack(), stack) &&
+                    p.getItemStack().getCount() + stack.getCount() <= stack.getMaxStackSize()) {
+                return e.getIntKey();
+            }
+        }
+        return -1;
+    }
+
     public Collection<PneumaticTubePayload> getPayloads() {
+        catchUp();
         return payloads.values();
     }
 
-    public Collection<Integer> removePayloadsConditionally(Predicate<PneumaticTubePayload> condition) {
-        List<Integer> toRemove = new LinkedList<>();
-        for (var e : payloads.entrySet()) {
+    public IntList removePayloadsConditionally(Predicate<PneumaticTubePayload> condition) {
+        catchUp();
+        IntList removed = new IntArrayList();
+        for (var e : Int2ObjectMaps.fastIterable(payloads)) {
             if (condition.test(e.getValue())) {
-                toRemove.add(e.getKey());
+                removed.add(e.getIntKey());
             }
         }
-        for (int id : toRemove) {
-            payloads.remove(id);
+        for (int i = 0; i < removed.size(); i++) {
+            payloads.remove(removed.getInt(i));
         }
-        return toRemove;
+        return removed;
     }
 
-    public void tick() {
-        List<Integer> toRemove = new LinkedList<>();
+    public boolean isEmpty() {
+        return payloads.isEmpty();
+    }
+
+    //region Scheduling
+    /**
+     * Moves all payloads forward to the given game time, running any boundary events on the way. Callers
+     * should not skip past the time returned by {@link #getNextEventTime()}, as only one boundary is handled
+     * per payload per call.
+     */
+    public void tick(long time) {
+        if (lastTime == NO_TIME) lastTime = time - 1;
+        long elapsed = time - lastTime;
+        if (elapsed <= 0) return;
+        lastTime = time;
+
+        if (payloads.isEmpty()) return;
 
         // Move all payloads forward
-        for (var e : payloads.entrySet()) {
+        int steps = (int) Math.min(elapsed, MAX_PROGRESS * 2);
+        for (var e : Int2ObjectMaps.fastIterable(payloads)) {
+            int id = e.getIntKey();
             var payload = e.getValue();
 
             int p1 = payload.getProgress();
-            payload.incrementProgress();
+            payload.setProgress(p1 + payload.getSpeed() * steps);
             int p2 = payload.getProgress();
 
             // Calc output direction right before reaching middle
-            int outputCalcBoundary = MAX_PROGRESS / 2 - payload.getSpeed();
+            int outputCalcBoundary = getOutputCalcBoundary(payload);
             if (p1 < outputCalcBoundary && p2 >= outputCalcBoundary) {
                 container.setOutputDirection(payload);
-                container.onPayloadChanged(e.getKey(), payload);
+                container.onPayloadChanged(id, payload);
             }
 
             // If max progress was crossed
             if (p1 < MAX_PROGRESS && p2 >= MAX_PROGRESS) {
-                if (container.onPayloadReachedOutput(e.getKey(), payload)) {
-                    toRemove.add(e.getKey());
+                if (container.onPayloadReachedOutput(id, payload)) {
+                    toRemove.add(id);
                 }
             }
 
             if (p2 >= MAX_PROGRESS * 2) {
                 // Insurance in case item is not passed when crossing MAX_PROGRESS
-                toRemove.add(e.getKey());
+                toRemove.add(id);
             }
         }
 
         // Remove all payloads that reached the end
-        for (int id : toRemove) {
-            payloads.remove(id);
+        for (int i = 0; i < toRemove.size(); i++) {
+            payloads.remove(toRemove.getInt(i));
+        }
+        toRemove.clear();
+    }
+
+    /**
+     * @return Game time at which the next payload crosses a boundary, or {@link Long#MAX_VALUE} if none will
+     */
+    public long getNextEventTime() {
+        catchUp();
+        if (lastTime == NO_TIME) return Long.MAX_VALUE;
+
+        long next = Long.MAX_VALUE;
+        for (var payload : payloads.values()) {
+            int speed = payload.getSpeed();
+            if (speed <= 0) continue;
+
+            int progress = payload.getProgress();
+            int boundary;
+            if (progress < getOutputCalcBoundary(payload)) {
+                boundary = getOutputCalcBoundary(payload);
+            } else if (progress < MAX_PROGRESS) {
+                boundary = MAX_PROGRESS;
+            } else {
+                boundary = MAX_PROGRESS * 2;
+            }
+
+            long ticks = Math.max(1, (boundary - progress + speed - 1) / speed);
+            next = Math.min(next, lastTime + ticks);
         }
+        return next;
+    }
+
+    /**
+     * Forgets the transport time, so payloads don't jump forward on re-joining the world.
+     */
+    public void resetTime() {
+        lastTime = NO_TIME;
     }
 
+    private void catchUp() {
+        long now = container.getTransportTime();
+        if (now == NO_TIME) return; // Not in world
+
+        // Bring progress up to the end of the previous tick. Nothing is due before then, so no events run.
+        if (lastTime == NO_TIME) {
+            lastTime = now - 1;
+        } else {
+            tick(now - 1);
+        }
+    }
+
+    private static int getOutputCalcBoundary(PneumaticTubePayload payload) {
+        return MAX_PROGRESS / 2 - payload.getSpeed();
+    }
+    //endregion
+
     private int getNextId() {
         int id = nextId++;
         while (payloads.containsKey(id)) {
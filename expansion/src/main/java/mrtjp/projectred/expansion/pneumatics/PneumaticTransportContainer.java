@@ -14,6 +14,14 @@ public interface PneumaticTransportContainer {
     boolean onPayloadReachedOutput(int id, PneumaticTubePayload payload);
     //endregion
 
+    //region Scheduling
+    // Current game time, or PneumaticTransport.NO_TIME if not in a world
+    long getTransportTime();
+
+    // Payloads were added, so the next transport event may be sooner than scheduled
+    void onTransportScheduleChanged();
+    //endregion
+
     //region Endpoints
     boolean canItemEnterTube(PneumaticTubePayload payload, int side);
 
@@ -0,0 +1,96 @@
+package mrtjp.projectred.expansion.pneumatics;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.event.TickEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Per-dimension tick scheduler for pneumatic tubes.
+ * <p>
+ * Tubes are not ticked every tick. Instead, each tube holds a {@link Ticket} that it schedules for the
+ * game time of its next event (i.e. a payload reaching a boundary in the tube). Idle tubes hold no
+ * scheduled ticket and cost nothing per tick.
+ */
+public class PneumaticTubeScheduler {
+
+    private static final IdentityHashMap<ResourceKey<Level>, PneumaticTubeScheduler> SERVER_INSTANCE = new IdentityHashMap<>();
+    private static final IdentityHashMap<ResourceKey<Level>, PneumaticTubeScheduler> CLIENT_INSTANCE = new IdentityHashMap<>();
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private long nextSequence = 0;
+
+    public static PneumaticTubeScheduler getInstance(Level level) {
+        var map = level.isClientSide() ? CLIENT_INSTANCE : SERVER_INSTANCE;
+        return map.computeIfAbsent(level.dimension(), k -> new PneumaticTubeScheduler());
+    }
+
+    //region Events
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            getInstance(event.level).tick(event.level.getGameTime());
+        }
+    }
+
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level) {
+            var map = level.isClientSide() ? CLIENT_INSTANCE : SERVER_INSTANCE;
+            map.remove(level.dimension());
+        }
+    }
+    //endregion
+
+    /**
+     * Schedules the ticket for the given game time. If it is already scheduled earlier, it is left as is.
+     */
+    public void schedule(Ticket ticket, long time) {
+        if (ticket.time != -1 && ticket.time <= time) return;
+
+        ticket.time = time;
+        queue.add(new Entry(time, nextSequence++, ticket));
+    }
+
+    public void cancel(Ticket ticket) {
+        ticket.time = -1; // Queued entry becomes stale and is skipped
+    }
+
+    private void tick(long time) {
+        // Tickets scheduled for this tick while processing are run in this same pass
+        while (!queue.isEmpty() && queue.peek().time <= time) {
+            Entry e = queue.poll();
+            if (e.ticket.time != e.time) continue; // Cancelled or rescheduled earlier
+
+            e.ticket.time = -1;
+            e.ticket.callback.accept(time);
+        }
+    }
+
+    public static final class Ticket {
+
+        private final LongConsumer callback;
+        private long time = -1;
+
+        /**
+         * @param callback Called with the current game time when the ticket is due
+         */
+        public Ticket(LongConsumer callback) {
+            this.callback = callback;
+        }
+
+        public boolean isScheduled() {
+            return time != -1;
+        }
+    }
+
+    private record Entry(long time, long sequence, Ticket ticket) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            int c = Long.compare(time, o.time);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+}
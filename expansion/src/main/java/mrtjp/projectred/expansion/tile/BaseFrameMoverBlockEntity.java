@@ -8,6 +8,7 @@ import mrtjp.projectred.api.MovementDescriptor;
 import mrtjp.projectred.api.ProjectRedAPI;
 import mrtjp.projectred.core.block.ProjectRedBlock;
 import mrtjp.projectred.core.tile.IOrientableBlockEntity;
+import mrtjp.projectred.expansion.FrameStructureCache;
 import mrtjp.projectred.expansion.MovementManager;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -64,7 +65,7 @@ public abstract class BaseFrameMoverBlockEntity extends LowLoadPoweredBlockEntit
         if (MovementManager.getInstance(level).getMovementInfo(getBlockPos()).isMoving()) return;
 
         assert ProjectRedAPI.expansionAPI != null;
-        Set<BlockPos> blocks = ProjectRedAPI.expansionAPI.getStructure(level, blockInFront, getBlockPos());
+        Set<BlockPos> blocks = FrameStructureCache.getStructure(level, blockInFront, getBlockPos());
         MovementDescriptor desc = ProjectRedAPI.expansionAPI.beginMove(level, getMoveDir(), 1 / 16D, blocks);
         if (desc.getStatus() == MovementDescriptor.MovementStatus.MOVING) {
             descriptor = desc;
@@ -94,6 +95,14 @@ public abstract class BaseFrameMoverBlockEntity extends LowLoadPoweredBlockEntit
         }
     }
 
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        if (level != null) {
+            FrameStructureCache.remove(level, getBlockPos());
+        }
+    }
+
     @Override
     public void onNeighborBlockChanged(BlockPos neighborPos) {
         super.onNeighborBlockChanged(neighborPos);
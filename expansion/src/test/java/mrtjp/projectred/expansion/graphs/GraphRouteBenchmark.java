@@ -0,0 +1,130 @@
+package mrtjp.projectred.expansion.graphs;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the route table of a corner node in a flat square grid of tube junctions. Every container is an
+ * active node, so a grid of side 100 has 10k nodes and routes with an average length of 100 edges.
+ * <p>
+ * Run {@link #main} and compare {@code gc.alloc.rate.norm} between grid sizes. Since routes share their
+ * parent's edges, bytes allocated per table should grow with node count, not with total route length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphRouteBenchmark {
+
+    private static final int[][] OFFSETS = { { 0, -1 }, { 0, 1 }, { -1, 0 }, { 1, 0 } };
+
+    @Param({ "50", "100" })
+    public int gridSize;
+
+    private FakeContainer[][] grid;
+    private GraphNode start;
+
+    @Setup
+    public void setup() {
+        grid = new FakeContainer[gridSize][gridSize];
+        for (int x = 0; x < gridSize; x++) {
+            for (int z = 0; z < gridSize; z++) {
+                grid[x][z] = new FakeContainer(x, z);
+            }
+        }
+
+        // Place containers one by one like a player would, then resolve all links so only route building is measured
+        for (FakeContainer[] row : grid) {
+            for (FakeContainer c : row) {
+                c.placed = true;
+                c.node.markLinksChanged(); // Connection mask change on placement
+                c.node.onAdded();
+            }
+        }
+        for (FakeContainer[] row : grid) {
+            for (FakeContainer c : row) {
+                c.node.getLinks();
+            }
+        }
+        start = grid[0][0].node;
+    }
+
+    @Benchmark
+    public void pathfinderRouteTable(Blackhole bh) {
+        consumeRoutes(new GraphRoutePathfinder(start).result(), bh);
+    }
+
+    @Benchmark
+    public void networkRouteTable(Blackhole bh) {
+        consumeRoutes(GraphNetwork.build(start).getRouteTable(start), bh);
+    }
+
+    private static void consumeRoutes(GraphRouteTable table, Blackhole bh) {
+        // Network tables are lazy views, so walk every route to build them all
+        var it = table.routeIterator();
+        while (it.hasNext()) {
+            bh.consume(it.next());
+        }
+    }
+
+    private class FakeContainer implements GraphContainer {
+
+        private final int x;
+        private final int z;
+        private final GraphNode node = new GraphNode(this);
+        private boolean placed = false;
+
+        FakeContainer(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public GraphNode getNode() {
+            return node;
+        }
+
+        @Override
+        public boolean canPropagate(int dir) {
+            return getNodeTowards(dir) != null;
+        }
+
+        @Nullable
+        @Override
+        public GraphContainer getNodeTowards(int dir) {
+            // Grid lies on the horizontal plane, sides 2 to 5
+            if (dir < 2) return null;
+            int nx = x + OFFSETS[dir - 2][0];
+            int nz = z + OFFSETS[dir - 2][1];
+            if (nx < 0 || nz < 0 || nx >= gridSize || nz >= gridSize) return null;
+            return grid[nx][nz].placed ? grid[nx][nz] : null;
+        }
+
+        @Override
+        public boolean requiresActiveNode() {
+            return true;
+        }
+
+        @Override
+        public void onNodeChanged(boolean linksChanged, boolean stateChange) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(GraphRouteBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
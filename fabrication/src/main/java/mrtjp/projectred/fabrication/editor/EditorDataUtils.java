@@ -25,7 +25,7 @@ public class EditorDataUtils {
     public static final String KEY_COMP_STATE = "state"; // byte
     public static final String KEY_SIM_START_TIME = "sim_start_time"; // long
     public static final String KEY_COMPILE_FORMAT = "compile_format"; // int
-    public static final String KEY_FLAT_MAP = "flat_map"; // String
+    public static final String KEY_FLAT_MAP = "flat_map"; // byte array (String in legacy data)
     public static final String KEY_SIMULATION = "sim_cont"; // CompoundTag
     public static final String KEY_COMPILER_LOG = "compiler_log"; // CompoundTag
     public static final String KEY_AUTO_COMPILE_ENABLE = "auto_compile_enable"; // boolean
@@ -84,10 +84,24 @@ public class EditorDataUtils {
         copy.putString(KEY_IC_NAME, editorTag.getString(KEY_IC_NAME));
         copy.putInt(KEY_TILE_COUNT, editorTag.getInt(KEY_TILE_COUNT));
         copy.put(KEY_IO_SPEC, editorTag.getCompound(KEY_IO_SPEC));
-        copy.putString(KEY_FLAT_MAP, editorTag.getString(KEY_FLAT_MAP));
+        saveFlatMap(copy, KEY_FLAT_MAP, loadFlatMapBytes(editorTag, KEY_FLAT_MAP));
         return copy;
     }
 
+    public static void saveFlatMap(CompoundTag tag, String key, byte[] flatMap) {
+        // Byte array tags wrap the array as-is, so each tag gets its own copy
+        tag.putByteArray(key, flatMap.clone());
+    }
+
+    // Returns binary flat map, converting legacy String data if needed
+    public static byte[] loadFlatMapBytes(CompoundTag tag, String key) {
+        if (tag.contains(key, Tag.TAG_BYTE_ARRAY)) {
+            return tag.getByteArray(key);
+        }
+        String legacy = tag.getString(key);
+        return legacy.isEmpty() ? PRFabricationEngine.EMPTY_FLAT_MAP_BINARY : PRFabricationEngine.encodeSerialized(legacy);
+    }
+
     public static InterfaceSpec getInterfaceSpec(CompoundTag tag) {
         return InterfaceSpec.createFrom(tag, KEY_IO_SPEC);
     }
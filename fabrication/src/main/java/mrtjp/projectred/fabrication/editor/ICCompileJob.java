@@ -0,0 +1,182 @@
+package mrtjp.projectred.fabrication.editor;
+
+import mrtjp.fengine.TileCoord;
+import mrtjp.fengine.api.ICFlatMap;
+import mrtjp.fengine.api.ICStepThroughAssembler;
+import mrtjp.projectred.core.Configurator;
+import mrtjp.projectred.fabrication.engine.BaseTileMap;
+import mrtjp.projectred.fabrication.engine.PRFabricationEngine;
+import mrtjp.projectred.fabrication.engine.log.CompileProblem;
+import mrtjp.projectred.fabrication.engine.log.ICCompilerLog;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static mrtjp.projectred.fabrication.ProjectRedFabrication.LOGGER;
+
+/**
+ * Compiles a snapshot of a tile map on a background thread.
+ * <p>
+ * Assembler events and problems reported by tiles are copied into a queue on the compile thread and replayed into
+ * the {@link ICCompilerLog} on the server thread by {@link #drainEvents(ICCompilerLog)}. The log and its client
+ * packets therefore see the same sequence of events as a compile stepped on the server thread. Register and gate
+ * IDs assigned to the snapshot's tiles are copied to the live tiles by {@link #copyCompiledIds(BaseTileMap)}.
+ */
+public class ICCompileJob implements ICStepThroughAssembler.EventReceiver, Runnable {
+
+    private static final int MAX_QUEUED_JOBS = 64;
+
+    private static @Nullable ThreadPoolExecutor executor = null;
+
+    private final BaseTileMap snapshot;
+    private final Queue<Consumer<ICCompilerLog>> events = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+    private volatile @Nullable ICFlatMap result = null;
+    private volatile @Nullable byte[] serializedResult = null;
+    private volatile @Nullable Throwable failure = null;
+
+    private ICCompileJob(BaseTileMap tileMap) {
+        this.snapshot = tileMap.copy(this::onProblemFound);
+    }
+
+    /**
+     * Snapshots the tile map and queues it for compilation.
+     *
+     * @return The queued job, or null if background compilation is disabled or the queue is full
+     */
+    public static @Nullable ICCompileJob submit(BaseTileMap tileMap) {
+        ThreadPoolExecutor executor = getExecutor();
+        if (executor == null) return null;
+
+        ICCompileJob job = new ICCompileJob(tileMap);
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("IC compile queue full, compiling on server thread");
+            return null;
+        }
+        return job;
+    }
+
+    private static synchronized @Nullable ThreadPoolExecutor getExecutor() {
+        if (Configurator.compileThreads <= 0) return null;
+
+        if (executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread thread = new Thread(r, "ProjectRed IC Compiler #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            };
+            int threads = Configurator.compileThreads;
+            executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(MAX_QUEUED_JOBS), factory, new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    //region Compile thread
+    @Override
+    public void run() {
+        if (cancelled) return;
+        try {
+            ICStepThroughAssembler assembler = PRFabricationEngine.instance.newStepThroughAssembler();
+            assembler.setEventReceiver(this);
+            assembler.addTileMap(snapshot, Collections.emptyMap());
+
+            while (!cancelled && !assembler.isDone()) {
+                assembler.stepIn();
+            }
+
+            if (!cancelled) {
+                ICFlatMap map = assembler.result();
+                serializedResult = PRFabricationEngine.instance.serializeFlatMapBinary(map);
+                result = map;
+            }
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            done = true;
+        }
+    }
+
+    @Override
+    public void onStepAdded(ICStepThroughAssembler.AssemblerStepDescriptor descriptor) {
+        if (cancelled) return;
+        List<Integer> treePath = List.copyOf(descriptor.getTreePath());
+        ICStepThroughAssembler.AssemblerStepType step = descriptor.getStepType();
+        events.add(log -> log.addStep(treePath, step));
+    }
+
+    @Override
+    public void onStepExecuted(ICStepThroughAssembler.AssemblerStepResult result) {
+        if (cancelled) return;
+        List<Integer> treePath = List.copyOf(result.getTreePath());
+        List<TileCoord> tileCoords = List.copyOf(result.getTileCoords());
+        List<Integer> registerIds = List.copyOf(result.getRegisterIds());
+        List<Integer> gateIds = List.copyOf(result.getGateIds());
+        Map<Integer, Integer> remaps = Map.copyOf(result.getRemappedRegisterIds());
+        events.add(log -> log.addExecutedStep(treePath, tileCoords, registerIds, gateIds, remaps));
+    }
+
+    private void onProblemFound(CompileProblem problem) {
+        if (cancelled) return;
+        events.add(log -> log.addProblem(problem));
+    }
+    //endregion
+
+    //region Server thread
+    /**
+     * Replays all queued compiler events into the log.
+     */
+    public void drainEvents(ICCompilerLog log) {
+        Consumer<ICCompilerLog> event;
+        while (!cancelled && (event = events.poll()) != null) {
+            event.accept(log);
+        }
+    }
+
+    /**
+     * Copies the register and gate IDs assigned during compilation to the tiles of the live map. Only valid once
+     * the job is done, and the map has not changed since the job was submitted.
+     */
+    public void copyCompiledIds(BaseTileMap tileMap) {
+        assert done;
+        tileMap.copyCompiledIds(snapshot);
+    }
+
+    /**
+     * Stops the job at the next step. Queued events are discarded.
+     */
+    public void cancel() {
+        cancelled = true;
+        events.clear();
+    }
+
+    /**
+     * @return True if the job finished running. Events may still be queued.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    public @Nullable ICFlatMap getResult() {
+        return result;
+    }
+
+    public @Nullable byte[] getSerializedResult() {
+        return serializedResult;
+    }
+
+    public @Nullable Throwable getFailure() {
+        return failure;
+    }
+    //endregion
+}
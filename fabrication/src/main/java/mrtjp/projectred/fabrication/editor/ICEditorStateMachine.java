@@ -58,7 +58,7 @@ public class ICEditorStateMachine {
 
     private int lastCompiledFormat = 0;
     private long lastSimStartTime = 0;
-    private String lastCompiledFlatMap = PRFabricationEngine.EMPTY_FLAT_MAP_SERIALIZED;
+    private byte[] lastCompiledFlatMap = PRFabricationEngine.EMPTY_FLAT_MAP_BINARY;
 
     private boolean autoCompileAvailable = true;
     private boolean enableAutoCompile = true;
@@ -76,7 +76,7 @@ public class ICEditorStateMachine {
         tag.putByte(KEY_COMP_STATE, (byte) currentState);
         tag.putInt(KEY_COMPILE_FORMAT, lastCompiledFormat);
         tag.putLong(KEY_SIM_START_TIME, editor.getGameTime() - lastSimStartTime);
-        tag.putString(KEY_FLAT_MAP, lastCompiledFlatMap);
+        saveFlatMap(tag, KEY_FLAT_MAP, lastCompiledFlatMap);
 
         CompoundTag simTag = new CompoundTag();
         simulationContainer.save(simTag);
@@ -93,7 +93,7 @@ public class ICEditorStateMachine {
     public void load(CompoundTag tag) {
         currentState = tag.getByte(KEY_COMP_STATE) & 0xFF;
         lastCompiledFormat = tag.getInt(KEY_COMPILE_FORMAT);
-        lastCompiledFlatMap = tag.getString(KEY_FLAT_MAP);
+        lastCompiledFlatMap = loadFlatMapBytes(tag, KEY_FLAT_MAP);
         simulationContainer.load(tag.getCompound(KEY_SIMULATION));
         compilerLog.load(tag.getCompound(KEY_COMPILER_LOG));
         enableAutoCompile = tag.getBoolean(KEY_AUTO_COMPILE_ENABLE);
@@ -390,10 +390,18 @@ public class ICEditorStateMachine {
 
     private class StateCompiling implements State {
 
+        // Background compile of a tile map snapshot
+        private @Nullable ICCompileJob job = null;
+        // Fallback when background compiling is unavailable. Stepped on the server thread
         private @Nullable ICStepThroughAssembler assembler = null;
 
         @Override
         public void onTick(long time) {
+            if (job != null) {
+                tickJob();
+                return;
+            }
+
             if (assembler == null) {
                 LOGGER.warn("Compiler assembler is null!");
                 restartAssembly();
@@ -412,18 +420,47 @@ public class ICEditorStateMachine {
             if (assembler.isDone()) {
                 ICFlatMap map = assembler.result();
                 assembler = null; //TODO make assemblers clearable
-                lastCompiledFormat = PRFabricationEngine.COMPILE_FORMAT;
-                lastCompiledFlatMap = PRFabricationEngine.instance.serializeFlatMap(map);
-                simulationContainer.setSystemTime(0);
-                simulationContainer.setFlatMap(map);
-
-                if (compilerLog.getErrorCount() > 0) {
-                    enterStateAndSend(STATE_COMPILE_FAILED);
-                    if (callback != null) callback.onCompileFailed();
-                } else {
-                    enterStateAndSend(STATE_SIMULATING);
-                    if (callback != null) callback.onCompileComplete();
-                }
+                onAssemblyComplete(map, PRFabricationEngine.instance.serializeFlatMapBinary(map));
+            }
+        }
+
+        private void tickJob() {
+            assert job != null;
+
+            // Marshal compiler events from the compile thread
+            job.drainEvents(compilerLog);
+            if (!job.isDone()) return;
+            job.drainEvents(compilerLog); // Catch events queued between the drain and completion
+
+            ICFlatMap map = job.getResult();
+            byte[] serializedMap = job.getSerializedResult();
+            Throwable failure = job.getFailure();
+            ICCompileJob completed = job;
+            job = null;
+
+            if (map != null && serializedMap != null) {
+                // Tile map changes cancel the job, so the live tiles still match the compiled snapshot
+                completed.copyCompiledIds(editor.getTileMap());
+                onAssemblyComplete(map, serializedMap);
+            } else {
+                // Retry on the server thread, where failures surface as they did before background compiling
+                LOGGER.error("Background IC compile failed. Retrying on server thread", failure);
+                restartAssembly(false);
+            }
+        }
+
+        private void onAssemblyComplete(ICFlatMap map, byte[] serializedMap) {
+            lastCompiledFormat = PRFabricationEngine.COMPILE_FORMAT;
+            lastCompiledFlatMap = serializedMap;
+            simulationContainer.setSystemTime(0);
+            simulationContainer.setFlatMap(map);
+
+            if (compilerLog.getErrorCount() > 0) {
+                enterStateAndSend(STATE_COMPILE_FAILED);
+                if (callback != null) callback.onCompileFailed();
+            } else {
+                enterStateAndSend(STATE_SIMULATING);
+                if (callback != null) callback.onCompileComplete();
             }
         }
 
@@ -444,15 +481,35 @@ public class ICEditorStateMachine {
 
         @Override
         public void onStateLeaving(int nextStateId) {
+            cancelJob();
             assembler = null;
         }
 
+        private void cancelJob() {
+            if (job != null) {
+                job.cancel();
+                job = null;
+            }
+        }
+
         private void restartAssembly() {
-            assembler = PRFabricationEngine.instance.newStepThroughAssembler();
-            assembler.setEventReceiver(compilerLog);
+            restartAssembly(true);
+        }
+
+        private void restartAssembly(boolean allowBackground) {
+            // Any running compile is for a stale tile map
+            cancelJob();
+            assembler = null;
             compilerLog.clearAndSend();
 
-            assembler.addTileMap(editor.getTileMap(), Collections.emptyMap());
+            if (allowBackground) {
+                job = ICCompileJob.submit(editor.getTileMap());
+            }
+            if (job == null) {
+                assembler = PRFabricationEngine.instance.newStepThroughAssembler();
+                assembler.setEventReceiver(compilerLog);
+                assembler.addTileMap(editor.getTileMap(), Collections.emptyMap());
+            }
             if (callback != null) callback.onCompileStart();
 
             // Check for problems detectable before compilation
@@ -8,6 +8,7 @@ import mrtjp.fengine.TileCoord;
 import mrtjp.fengine.tiles.FETile;
 import mrtjp.projectred.fabrication.editor.ICWorkbenchEditor;
 import mrtjp.projectred.fabrication.editor.tools.InteractionZone;
+import mrtjp.projectred.fabrication.engine.log.CompileProblem;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.neoforged.api.distmarker.Dist;
@@ -94,6 +95,15 @@ public abstract class BaseTile implements FETile {
 
     public void onSimRegistersChanged(int rMask, ICSimulationContainer container) { }
 
+    /**
+     * Copies register and gate IDs assigned during compilation from the same tile in a compiled copy of the map.
+     */
+    public void copyCompiledIds(BaseTile compiled) { }
+
+    protected void addCompileProblem(CompileProblem problem) {
+        getMap().addCompileProblem(problem);
+    }
+
     public final InteractionZone[] getInteractionZones() {
         if (interactionZones == null) {
             LinkedList<InteractionZone> zoneList = new LinkedList<>();
@@ -6,11 +6,14 @@ import mrtjp.fengine.TileCoord;
 import mrtjp.fengine.tiles.FETile;
 import mrtjp.fengine.tiles.FETileMap;
 import mrtjp.projectred.fabrication.editor.ICWorkbenchEditor;
+import mrtjp.projectred.fabrication.engine.log.CompileProblem;
 import net.covers1624.quack.collection.FastStream;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static mrtjp.projectred.fabrication.editor.EditorDataUtils.loadTileCoord;
 import static mrtjp.projectred.fabrication.editor.EditorDataUtils.saveTileCoord;
@@ -29,6 +32,9 @@ public class BaseTileMap implements FETileMap {
     private TileCoord minBounds = defaultMinBounds;
     private TileCoord maxBounds = defaultMaxBounds;
 
+    // Receives compile problems instead of the editor's compiler log. Set on copies compiled off-thread
+    private @Nullable Consumer<CompileProblem> problemSink = null;
+
     public BaseTileMap(ICWorkbenchEditor editor) {
         this.editor = editor;
     }
@@ -37,6 +43,14 @@ public class BaseTileMap implements FETileMap {
         return editor;
     }
 
+    public void addCompileProblem(CompileProblem problem) {
+        if (problemSink != null) {
+            problemSink.accept(problem);
+        } else {
+            editor.getStateMachine().getCompilerLog().addProblem(problem);
+        }
+    }
+
     public TileCoord getMinBounds() {
         return minBounds;
     }
@@ -171,6 +185,33 @@ public class BaseTileMap implements FETileMap {
         minBounds = loadTileCoord(tag, "minBounds");
     }
 
+    /**
+     * Creates a detached copy of this map with freshly loaded tiles. Used to compile the map off-thread while
+     * the original continues to be edited.
+     *
+     * @param problemSink Receives problems found while compiling the copy, in place of the editor's compiler log
+     */
+    public BaseTileMap copy(Consumer<CompileProblem> problemSink) {
+        CompoundTag tag = new CompoundTag();
+        save(tag);
+        BaseTileMap copy = new BaseTileMap(editor);
+        copy.load(tag);
+        copy.problemSink = problemSink;
+        return copy;
+    }
+
+    /**
+     * Takes the register and gate IDs assigned to tiles of a compiled copy of this map.
+     */
+    public void copyCompiledIds(BaseTileMap compiled) {
+        for (Map.Entry<TileCoord, BaseTile> entry : compiled.tileMap.entrySet()) {
+            BaseTile tile = tileMap.get(entry.getKey());
+            if (tile != null && tile.getTileType() == entry.getValue().getTileType()) {
+                tile.copyCompiledIds(entry.getValue());
+            }
+        }
+    }
+
     public void writeDesc(MCDataOutput out) {
 
         out.writeByte(minBounds.x).writeByte(minBounds.y).writeByte(minBounds.z);
@@ -0,0 +1,309 @@
+package mrtjp.projectred.fabrication.engine;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary form of the JSON produced by the fabrication engine serializer.
+ * <p>
+ * The engine only serializes to JSON text, so that text is read token by token and written straight to binary.
+ * Decoding likewise writes JSON text straight from the binary form. No JSON tree is built either way.
+ * <p>
+ * All object keys and string values (gate ids, field names) are written once into a leading dictionary and
+ * referenced by index. Integers are written as zigzag varints, and arrays of integers (register and gate id lists)
+ * are packed without per-element tags.
+ * <p>
+ * Layout: {@code [format byte] [varint dict size] [dict strings] [root node]}
+ */
+final class BinaryJsonCodec {
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_OBJECT = 1;
+    private static final int TAG_ARRAY = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_DECIMAL = 5;
+    private static final int TAG_STRING = 6;
+    private static final int TAG_TRUE = 7;
+    private static final int TAG_FALSE = 8;
+    private static final int TAG_INT_ARRAY = 9;
+
+    private BinaryJsonCodec() {
+    }
+
+    //region Encoding
+    /**
+     * Encodes the JSON text token by token, without building a tree of it first.
+     */
+    static byte[] encode(String json, int format) {
+        Encoder encoder = new Encoder();
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            DataOutputStream body = encoder.level(0);
+            encoder.writeNode(in, body, 0);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.size() + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(format);
+            writeVarInt(out, encoder.strings.size());
+            for (String str : encoder.strings) {
+                byte[] b = str.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, b.length);
+                out.write(b);
+            }
+            encoder.levels.get(0).writeTo(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new JsonParseException(e); // Only from malformed JSON, since everything else is in memory
+        }
+    }
+
+    private static final class Encoder {
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        // Nodes are written to a buffer for their depth, then copied into the parent once their size is known
+        private final List<ByteArrayOutputStream> levels = new ArrayList<>();
+        private final List<DataOutputStream> levelStreams = new ArrayList<>();
+        private final List<long[]> levelInts = new ArrayList<>();
+
+        private DataOutputStream level(int depth) {
+            if (depth == levels.size()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                levels.add(bytes);
+                levelStreams.add(new DataOutputStream(bytes));
+                levelInts.add(new long[16]);
+            }
+            levels.get(depth).reset();
+            return levelStreams.get(depth);
+        }
+
+        private int intern(String str) {
+            Integer index = dictionary.get(str);
+            if (index == null) {
+                index = strings.size();
+                dictionary.put(str, index);
+                strings.add(str);
+            }
+            return index;
+        }
+
+        private void writeNode(JsonReader in, DataOutputStream out, int depth) throws IOException {
+            switch (in.peek()) {
+                case BEGIN_OBJECT -> {
+                    DataOutputStream children = level(depth + 1);
+                    int size = 0;
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        writeVarInt(children, intern(in.nextName()));
+                        writeNode(in, children, depth + 1);
+                        size++;
+                    }
+                    in.endObject();
+
+                    out.writeByte(TAG_OBJECT);
+                    writeVarInt(out, size);
+                    levels.get(depth + 1).writeTo(out);
+                }
+                case BEGIN_ARRAY -> {
+                    // Children are written as regular nodes, and also kept as longs in case all of them are integers
+                    DataOutputStream children = level(depth + 1);
+                    long[] ints = levelInts.get(depth + 1);
+                    boolean intArray = true;
+                    int size = 0;
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (intArray && in.peek() == JsonToken.NUMBER) {
+                            String number = in.nextString();
+                            intArray = isIntegral(number);
+                            if (intArray) {
+                                if (size == ints.length) {
+                                    ints = Arrays.copyOf(ints, size * 2);
+                                    levelInts.set(depth + 1, ints);
+                                }
+                                ints[size] = Long.parseLong(number);
+                            }
+                            writeNumber(children, number);
+                        } else {
+                            intArray = false;
+                            writeNode(in, children, depth + 1);
+                        }
+                        size++;
+                    }
+                    in.endArray();
+
+                    if (intArray && size > 0) {
+                        out.writeByte(TAG_INT_ARRAY);
+                        writeVarInt(out, size);
+                        for (int i = 0; i < size; i++) {
+                            writeVarLong(out, zigzag(ints[i]));
+                        }
+                    } else {
+                        out.writeByte(TAG_ARRAY);
+                        writeVarInt(out, size);
+                        levels.get(depth + 1).writeTo(out);
+                    }
+                }
+                case STRING -> {
+                    out.writeByte(TAG_STRING);
+                    writeVarInt(out, intern(in.nextString()));
+                }
+                case NUMBER -> writeNumber(out, in.nextString());
+                case BOOLEAN -> out.writeByte(in.nextBoolean() ? TAG_TRUE : TAG_FALSE);
+                case NULL -> {
+                    in.nextNull();
+                    out.writeByte(TAG_NULL);
+                }
+                default -> throw new JsonParseException("Unexpected token " + in.peek() + " at " + in.getPath());
+            }
+        }
+
+        private void writeNumber(DataOutputStream out, String number) throws IOException {
+            if (isIntegral(number)) {
+                out.writeByte(TAG_INT);
+                writeVarLong(out, zigzag(Long.parseLong(number)));
+            } else if (isDouble(number)) {
+                out.writeByte(TAG_DOUBLE);
+                out.writeDouble(Double.parseDouble(number));
+            } else {
+                out.writeByte(TAG_DECIMAL);
+                writeVarInt(out, intern(number));
+            }
+        }
+    }
+
+    private static boolean isIntegral(String number) {
+        if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) return false;
+        try {
+            Long.parseLong(number);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static boolean isDouble(String number) {
+        // Only doubles that print back to the same text, which is the case for anything written by Gson
+        return Double.toString(Double.parseDouble(number)).equals(number);
+    }
+    //endregion
+
+    //region Decoding
+    /**
+     * Decodes straight to JSON text, without building a tree of it first.
+     */
+    static String decode(byte[] data, int format) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        String[] strings = readHeader(in, format);
+
+        StringWriter text = new StringWriter(data.length * 4);
+        try (JsonWriter out = new JsonWriter(text)) {
+            out.setLenient(true); // Same as JsonElement#toString
+            writeText(in, out, strings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not possible with a string writer
+        }
+        return text.toString();
+    }
+
+    private static String[] readHeader(ByteBuffer in, int format) {
+        int dataFormat = in.get() & 0xFF;
+        if (dataFormat != format) {
+            throw new IllegalArgumentException("Unsupported binary format " + dataFormat + " (expected " + format + ")");
+        }
+
+        String[] strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] b = new byte[readVarInt(in)];
+            in.get(b);
+            strings[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static void writeText(ByteBuffer in, JsonWriter out, String[] strings) throws IOException {
+        int tag = in.get();
+        switch (tag) {
+            case TAG_NULL -> out.nullValue();
+            case TAG_OBJECT -> {
+                int size = readVarInt(in);
+                out.beginObject();
+                for (int i = 0; i < size; i++) {
+                    out.name(strings[readVarInt(in)]);
+                    writeText(in, out, strings);
+                }
+                out.endObject();
+            }
+            case TAG_ARRAY -> {
+                int size = readVarInt(in);
+                out.beginArray();
+                for (int i = 0; i < size; i++) {
+                    writeText(in, out, strings);
+                }
+                out.endArray();
+            }
+            case TAG_INT_ARRAY -> {
+                int size = readVarInt(in);
+                out.beginArray();
+                for (int i = 0; i < size; i++) {
+                    out.value(unzigzag(readVarLong(in)));
+                }
+                out.endArray();
+            }
+            case TAG_INT -> out.value(unzigzag(readVarLong(in)));
+            case TAG_DOUBLE -> out.value((Number) in.getDouble());
+            case TAG_DECIMAL -> out.value(new BigDecimal(strings[readVarInt(in)]));
+            case TAG_STRING -> out.value(strings[readVarInt(in)]);
+            case TAG_TRUE -> out.value(true);
+            case TAG_FALSE -> out.value(false);
+            default -> throw new IllegalArgumentException("Unknown tag " + tag);
+        }
+    }
+    //endregion
+
+    //region Varints
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        writeVarLong(out, v & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return v;
+    }
+    //endregion
+}
@@ -5,6 +5,9 @@ import codechicken.lib.data.MCDataOutput;
 import mrtjp.fengine.api.ICFlatMap;
 import mrtjp.fengine.simulate.ICSimulation;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+import javax.annotation.Nullable;
 
 public class ICSimulationContainer {
 
@@ -25,8 +28,29 @@ public class ICSimulationContainer {
 
     private long systemTime = 0L;
 
-    public void setInput(int rotation, short mask) {
+    /**
+     * Input masks and time last queued into the simulation registers. Only bits that differ from
+     * these are queued on the next push. Rotations not in {@link #pushedInputMask} (and the time,
+     * if {@link #timePushed} is false) are unknown and pushed in full.
+     */
+    private final short[] pushedInputs = new short[] { 0, 0, 0, 0 };
+    private int pushedInputMask = 0;
+    private long pushedTime = 0L;
+    private boolean timePushed = false;
+
+    /**
+     * Binary form of the simulation as last saved or loaded. Reused by saves until a register write is queued,
+     * which is the only way the simulation can change.
+     */
+    private @Nullable byte[] savedSimulation = null;
+
+    /**
+     * @return True if the input changed
+     */
+    public boolean setInput(int rotation, short mask) {
+        if (inputs[rotation] == mask) return false;
         inputs[rotation] = mask;
+        return true;
     }
 
     public int setInputs(short[] inputs) {
@@ -64,6 +88,8 @@ public class ICSimulationContainer {
 
     public void setFlatMap(ICFlatMap flatMap) {
         this.simulation = new ICSimulation(flatMap);
+        savedSimulation = null;
+        invalidatePushedState();
 
         pushInputs(0xF);
         pushTime();
@@ -72,7 +98,15 @@ public class ICSimulationContainer {
     }
 
     public void save(CompoundTag tag) {
-        tag.putString("simulation", PRFabricationEngine.instance.serializeSimulation(simulation));
+        if (savedSimulation == null) {
+            savedSimulation = PRFabricationEngine.instance.serializeSimulationBinary(simulation);
+        }
+        // Byte array tags wrap the array as-is, so each tag gets its own copy
+        tag.putByteArray("simulation", savedSimulation.clone());
+        saveIO(tag);
+    }
+
+    private void saveIO(CompoundTag tag) {
         for (int i = 0; i < 4; i++) {
             tag.putShort("in" + i, inputs[i]);
             tag.putShort("out" + i, outputs[i]);
@@ -81,10 +115,16 @@ public class ICSimulationContainer {
     }
 
     public void load(CompoundTag tag) {
-        ICSimulation simulation = PRFabricationEngine.instance.deserializeSimulation(tag.getString("simulation"));
+        ICSimulation simulation = loadSimulation(tag);
         if (simulation != null) {
             this.simulation = simulation;
+            savedSimulation = tag.contains("simulation", Tag.TAG_BYTE_ARRAY) ? tag.getByteArray("simulation").clone() : null;
         }
+        invalidatePushedState();
+        loadIO(tag);
+    }
+
+    private void loadIO(CompoundTag tag) {
         for (int i = 0; i < 4; i++) {
             inputs[i] = tag.getShort("in" + i);
             outputs[i] = tag.getShort("out" + i);
@@ -92,6 +132,14 @@ public class ICSimulationContainer {
         systemTime = tag.getLong("systemTime");
     }
 
+    private static @Nullable ICSimulation loadSimulation(CompoundTag tag) {
+        if (tag.contains("simulation", Tag.TAG_STRING)) { // Legacy String format
+            return PRFabricationEngine.instance.deserializeSimulation(tag.getString("simulation"));
+        }
+        byte[] data = tag.getByteArray("simulation");
+        return data.length == 0 ? null : PRFabricationEngine.instance.deserializeSimulationBinary(data);
+    }
+
     public void writeDesc(MCDataOutput out) {
         //TODO write simulation log
     }
@@ -100,17 +148,26 @@ public class ICSimulationContainer {
         // TODO read simulation log
     }
 
+    /**
+     * Queues input registers of the given rotations. Only bits that changed since the last push are queued.
+     */
     public void pushInputs(int rmask) {
 
         for (int r = 0; r < 4; r++) {
             if ((rmask & (1 << r)) != 0) {
-                for (int i = 0; i < 16; i++) {
+                int changed = (pushedInputMask & (1 << r)) != 0 ? (inputs[r] ^ pushedInputs[r]) & 0xFFFF : 0xFFFF;
+                while (changed != 0) {
+                    int i = Integer.numberOfTrailingZeros(changed);
+                    changed &= changed - 1;
                     int regId = PRFabricationEngine.inputRegisterId(r, i);
                     byte value = (inputs[r] & (1 << i)) != 0 ? (byte) 1 : 0;
                     simulation.queueRegByteVal(regId, value);
+                    savedSimulation = null;
                 }
+                pushedInputs[r] = inputs[r];
             }
         }
+        pushedInputMask |= rmask & 0xF;
     }
 
     public void pullInputs(int rmask) {
@@ -122,39 +179,69 @@ public class ICSimulationContainer {
                     int regId = PRFabricationEngine.inputRegisterId(r, i);
                     if (simulation.getRegByteVal(regId) != 0) inputs[r] |= (1 << i);
                 }
+                pushedInputs[r] = inputs[r];
             }
         }
+        pushedInputMask |= rmask & 0xF;
     }
 
+    /**
+     * Queues the time registers. Only bytes that changed since the last push are queued, which is usually just
+     * the lowest one.
+     */
     public void pushTime() {
-        simulation.queueRegLongVal(PRFabricationEngine.REG_TIME, 0, systemTime);
+        long changed = timePushed ? systemTime ^ pushedTime : -1L;
+        for (int i = 0; i < 8; i++) {
+            int shift = (7 - i) * 8; // REG_TIME is ordered most significant byte first
+            if ((changed >>> shift & 0xFF) != 0) {
+                simulation.queueRegByteVal(PRFabricationEngine.REG_TIME[i], (byte) (systemTime >>> shift));
+                savedSimulation = null;
+            }
+        }
+        pushedTime = systemTime;
+        timePushed = true;
     }
 
     public void pullTime() {
         systemTime = simulation.getRegLongVal(PRFabricationEngine.REG_TIME, 0);
+        pushedTime = systemTime;
+        timePushed = true;
     }
 
     public int pullOutputs() {
+        return pullOutputs(0xF);
+    }
 
-        short[] newOutputs = new short[4];
+    /**
+     * Reads output registers of the given rotations.
+     *
+     * @return Mask of rotations whose output changed
+     */
+    public int pullOutputs(int rmask) {
+
+        int changeMask = 0;
         for (int r = 0; r < 4; r++) {
+            if ((rmask & (1 << r)) == 0) continue;
+
+            int newOutput = 0;
             for (int i = 0; i < 16; i++) {
                 int regId = PRFabricationEngine.outputRegisterId(r, i);
-                int value = simulation.getRegByteVal(regId) != 0 ? 1 : 0;
-                newOutputs[r] |= value << i;
+                if (simulation.getRegByteVal(regId) != 0) newOutput |= 1 << i;
             }
-        }
 
-        int changeMask = 0;
-        for (int r = 0; r < 4; r++) {
-            if (outputs[r] != newOutputs[r]) {
-                outputs[r] = newOutputs[r];
+            if (outputs[r] != (short) newOutput) {
+                outputs[r] = (short) newOutput;
                 changeMask |= (1 << r);
             }
         }
         return changeMask;
     }
 
+    private void invalidatePushedState() {
+        pushedInputMask = 0;
+        timePushed = false;
+    }
+
     public byte pullRegisterValue(int regId) {
         return simulation.getRegByteVal(regId);
     }
@@ -49,6 +49,13 @@ public class PRFabricationEngine extends FabricationEngine {
     // * Etc.
     public static final int COMPILE_FORMAT = 1;
 
+    // Layout of the binary NBT encoding of serialized flat maps and simulations (see BinaryJsonCodec). Independent of
+    // the compile format above. Must be incremented if the codec layout changes. Data saved in the legacy String form
+    // is converted on load.
+    public static final int BINARY_FORMAT = 1;
+
+    public static final byte[] EMPTY_FLAT_MAP_BINARY = encodeSerialized(EMPTY_FLAT_MAP_SERIALIZED);
+
     public static int inputRegisterId(int r, int i) {
         return REG_IN_BASE + r * 16 + i;
     }
@@ -57,6 +64,36 @@ public class PRFabricationEngine extends FabricationEngine {
         return REG_OUT_BASE + r * 16 + i;
     }
 
+    //region Binary serialization
+    public byte[] serializeFlatMapBinary(ICFlatMap flatMap) {
+        return encodeSerialized(serializeFlatMap(flatMap));
+    }
+
+    public ICFlatMap deserializeFlatMapBinary(byte[] data) {
+        return deserializeFlatMap(decodeSerialized(data));
+    }
+
+    public byte[] serializeSimulationBinary(ICSimulation simulation) {
+        return encodeSerialized(serializeSimulation(simulation));
+    }
+
+    public ICSimulation deserializeSimulationBinary(byte[] data) {
+        return deserializeSimulation(decodeSerialized(data));
+    }
+
+    /**
+     * Converts the String form produced by {@link #serializeFlatMap} or {@link #serializeSimulation} to the
+     * binary form. Used to migrate data saved before the binary format existed.
+     */
+    public static byte[] encodeSerialized(String serialized) {
+        return BinaryJsonCodec.encode(serialized, BINARY_FORMAT);
+    }
+
+    public static String decodeSerialized(byte[] data) {
+        return BinaryJsonCodec.decode(data, BINARY_FORMAT);
+    }
+    //endregion
+
     @Override
     public ICAssembler newAssembler() {
         ICAssembler assembler = super.newAssembler();
@@ -8,6 +8,7 @@ import mrtjp.fengine.assemble.PathFinderResult;
 import mrtjp.projectred.fabrication.editor.ICWorkbenchEditor;
 import mrtjp.projectred.fabrication.editor.tools.InteractionZone;
 import mrtjp.projectred.fabrication.editor.tools.SimpleInteractionZone;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import mrtjp.projectred.fabrication.engine.ICInterfaceType;
 import mrtjp.projectred.fabrication.engine.ICSimulationContainer;
 import mrtjp.projectred.fabrication.engine.IIOConnectionTile;
@@ -211,6 +212,11 @@ public class BundledBusIOGateTile extends BundledGateTile implements IIOConnecti
     }
     //endregion
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        System.arraycopy(((BundledBusIOGateTile) compiled).regIds, 0, regIds, 0, 16);
+    }
+
     //region FETile overrides
     @Override
     public void allocate(Allocator allocator) {
@@ -234,7 +240,7 @@ public class BundledBusIOGateTile extends BundledGateTile implements IIOConnecti
                 PathFinderResult pfr = pathFinder.doPathFinding((d, p) -> d == absDir && p == port);
                 if (pfr.outputRegisters.size() > 1) {
                     //TODO specify port in this error
-                    getEditor().getStateMachine().getCompilerLog().addProblem(new MultipleDriversError(getPos(), pfr.outputRegisters));
+                    addCompileProblem(new MultipleDriversError(getPos(), pfr.outputRegisters));
                 }
                 if (!pfr.outputRegisters.isEmpty()) {
                     regIds[i] = pfr.outputRegisters.get(0);
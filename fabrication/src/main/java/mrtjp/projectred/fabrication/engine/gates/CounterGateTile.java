@@ -9,6 +9,7 @@ import mrtjp.fengine.simulate.ICSimulation;
 import mrtjp.projectred.fabrication.editor.ICWorkbenchEditor;
 import mrtjp.projectred.fabrication.editor.tools.InteractionZone;
 import mrtjp.projectred.fabrication.editor.tools.SimpleInteractionZone;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import mrtjp.projectred.fabrication.engine.ICSimulationContainer;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
@@ -269,6 +270,12 @@ public class CounterGateTile extends InternalStateGateTile {
         Arrays.fill(countRegs, -1);
     }
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        super.copyCompiledIds(compiled);
+        countRegs = ((CounterGateTile) compiled).countRegs.clone();
+    }
+
     //region FETile overrides
     @Override
     public void allocate(Allocator allocator) {
@@ -3,6 +3,7 @@ package mrtjp.projectred.fabrication.engine.gates;
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import mrtjp.fengine.simulate.ByteRegister;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import mrtjp.projectred.fabrication.engine.ICSimulationContainer;
 import net.minecraft.nbt.CompoundTag;
 
@@ -75,6 +76,12 @@ public abstract class InternalStateGateTile extends SidedRedstoneGateTile {
         stateReg = -1;
     }
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        super.copyCompiledIds(compiled);
+        stateReg = ((InternalStateGateTile) compiled).stateReg;
+    }
+
     //region FETile overrides
     @Override
     public void allocate(Allocator allocator) {
@@ -3,6 +3,7 @@ package mrtjp.projectred.fabrication.engine.gates;
 import mrtjp.fengine.api.IPathFinder;
 import mrtjp.fengine.assemble.PathFinderResult;
 import mrtjp.fengine.simulate.ByteRegister;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import mrtjp.projectred.fabrication.engine.ICSimulationContainer;
 import mrtjp.projectred.fabrication.engine.IRotatableICTile;
 import mrtjp.projectred.fabrication.engine.log.DeadGateWarning;
@@ -76,6 +77,14 @@ public abstract class SidedRedstoneGateTile extends RedstoneGateTile {
         return mask;
     }
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        SidedRedstoneGateTile other = (SidedRedstoneGateTile) compiled;
+        System.arraycopy(other.inputRegisters, 0, inputRegisters, 0, 4);
+        System.arraycopy(other.outputRegisters, 0, outputRegisters, 0, 4);
+        gateId = other.gateId;
+    }
+
     //region FETile overrides
 
     @Override
@@ -103,7 +112,7 @@ public abstract class SidedRedstoneGateTile extends RedstoneGateTile {
         }
 
         if (req > 0 && found == 0) {
-            getEditor().getStateMachine().getCompilerLog().addProblem(new DeadGateWarning(getPos()));
+            addCompileProblem(new DeadGateWarning(getPos()));
         }
     }
 
@@ -156,7 +165,7 @@ public abstract class SidedRedstoneGateTile extends RedstoneGateTile {
         int absDir = IRotatableICTile.rotationToDir(absR);
         PathFinderResult pfr = pathFinder.doPathFinding((d, p) -> d == absDir);
         if (pfr.outputRegisters.size() > 1) {
-            getEditor().getStateMachine().getCompilerLog().addProblem(new MultipleDriversError(getPos(), pfr.outputRegisters));
+            addCompileProblem(new MultipleDriversError(getPos(), pfr.outputRegisters));
         }
         if (!pfr.outputRegisters.isEmpty()) {
             return pfr.outputRegisters.get(0);
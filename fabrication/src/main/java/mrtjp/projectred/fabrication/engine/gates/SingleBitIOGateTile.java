@@ -4,6 +4,7 @@ import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import mrtjp.fengine.api.IPathFinder;
 import mrtjp.fengine.assemble.PathFinderResult;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import mrtjp.projectred.fabrication.engine.ICSimulationContainer;
 import mrtjp.projectred.fabrication.engine.IIOConnectionTile;
 import mrtjp.projectred.fabrication.engine.IRotatableICTile;
@@ -157,6 +158,11 @@ public abstract class SingleBitIOGateTile extends RedstoneGateTile implements II
     }
     //endregion
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        regId = ((SingleBitIOGateTile) compiled).regId;
+    }
+
     //region FETile overrides
     @Override
     public void allocate(Allocator allocator) {
@@ -174,7 +180,7 @@ public abstract class SingleBitIOGateTile extends RedstoneGateTile implements II
             int absDir = IRotatableICTile.rotationToDir(absR);
             PathFinderResult pfr = pathFinder.doPathFinding((d, p) -> d == absDir);
             if (pfr.outputRegisters.size() > 1) {
-                getEditor().getStateMachine().getCompilerLog().addProblem(new MultipleDriversError(getPos(), pfr.outputRegisters));
+                addCompileProblem(new MultipleDriversError(getPos(), pfr.outputRegisters));
             }
             if (!pfr.outputRegisters.isEmpty()) {
                 regId = pfr.outputRegisters.get(0);
@@ -1,6 +1,7 @@
 package mrtjp.projectred.fabrication.engine.gates;
 
 import mrtjp.fengine.simulate.ByteRegister;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import net.minecraft.nbt.CompoundTag;
 
 import java.util.Arrays;
@@ -39,6 +40,12 @@ public abstract class TimedStateGateTile extends InternalStateGateTile {
         Arrays.fill(timeRegs, -1);
     }
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        super.copyCompiledIds(compiled);
+        timeRegs = ((TimedStateGateTile) compiled).timeRegs.clone();
+    }
+
     //region FETile overrides
     @Override
     public void allocate(Allocator allocator) {
@@ -138,31 +138,39 @@ public class ICCompilerLog implements ICStepThroughAssembler.EventReceiver {
     //region ICStepThroughAssembler.EventReceiver
     @Override
     public void onStepAdded(ICStepThroughAssembler.AssemblerStepDescriptor descriptor) {
-        CompileTreeNode node = compileTree.findOrCreateNode(descriptor.getTreePath());
-        node.step = descriptor.getStepType();
-
-        sendNodeAdded(node, descriptor.getTreePath());
-        notifyListeners();
+        addStep(descriptor.getTreePath(), descriptor.getStepType());
     }
 
     @Override
     public void onStepExecuted(ICStepThroughAssembler.AssemblerStepResult result) {
-        CompileTreeNode node = compileTree.findOrCreateNode(result.getTreePath());
-        node.tileCoords.addAll(result.getTileCoords());
-        node.registerIds.addAll(result.getRegisterIds());
-        node.gateIds.addAll(result.getGateIds());
-        node.registerRemaps.putAll(result.getRemappedRegisterIds());
+        addExecutedStep(result.getTreePath(), result.getTileCoords(), result.getRegisterIds(), result.getGateIds(), result.getRemappedRegisterIds());
+    }
+    //endregion
+
+    //region Compile-time logging
+    public void addStep(List<Integer> treePath, ICStepThroughAssembler.AssemblerStepType step) {
+        CompileTreeNode node = compileTree.findOrCreateNode(treePath);
+        node.step = step;
+
+        sendNodeAdded(node, treePath);
+        notifyListeners();
+    }
+
+    public void addExecutedStep(List<Integer> treePath, Collection<TileCoord> tileCoords, Collection<Integer> registerIds, Collection<Integer> gateIds, Map<Integer, Integer> registerRemaps) {
+        CompileTreeNode node = compileTree.findOrCreateNode(treePath);
+        node.tileCoords.addAll(tileCoords);
+        node.registerIds.addAll(registerIds);
+        node.gateIds.addAll(gateIds);
+        node.registerRemaps.putAll(registerRemaps);
 
         currentPath.clear();
-        currentPath.addAll(result.getTreePath());
+        currentPath.addAll(treePath);
         completedSteps++;
 
-        sendNodeExecuted(node, result.getTreePath());
+        sendNodeExecuted(node, treePath);
         notifyListeners();
     }
-    //endregion
 
-    //region Compile-time logging
     public void clearAndSend() {
         clear();
         sendClear();
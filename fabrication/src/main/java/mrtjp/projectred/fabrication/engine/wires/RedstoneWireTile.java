@@ -3,6 +3,7 @@ package mrtjp.projectred.fabrication.engine.wires;
 import codechicken.lib.data.MCDataInput;
 import codechicken.lib.data.MCDataOutput;
 import mrtjp.fengine.api.IPathFinderManifest;
+import mrtjp.projectred.fabrication.engine.BaseTile;
 import mrtjp.projectred.fabrication.engine.ICSimulationContainer;
 import mrtjp.projectred.fabrication.engine.ICTileType;
 import mrtjp.projectred.fabrication.engine.IConnectableICTile;
@@ -94,6 +95,11 @@ public abstract class RedstoneWireTile extends WireTile implements IRedstoneConn
         if (oldSignal != signal) sendSignalUpdate();
     }
 
+    @Override
+    public void copyCompiledIds(BaseTile compiled) {
+        inputRegisters.clear();
+        inputRegisters.addAll(((RedstoneWireTile) compiled).inputRegisters);
+    }
 
     @Override
     public void searchManifest(IPathFinderManifest manifest) {
@@ -101,7 +107,7 @@ public abstract class RedstoneWireTile extends WireTile implements IRedstoneConn
         inputRegisters.addAll(manifest.getOutputRegisters());
 
         if (inputRegisters.isEmpty()) {
-            getEditor().getStateMachine().getCompilerLog().addProblem(new DeadWireWarning(getPos()));
+            addCompileProblem(new DeadWireWarning(getPos()));
         }
     }
 
@@ -10,6 +10,7 @@ import mrtjp.projectred.fabrication.engine.InterfaceSpec;
 import mrtjp.projectred.fabrication.engine.PRFabricationEngine;
 import mrtjp.projectred.integration.GateType;
 import mrtjp.projectred.integration.part.BundledGatePart;
+import mrtjp.projectred.integration.part.TickableGatePart;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.item.ItemStack;
 
@@ -21,7 +22,7 @@ import static mrtjp.projectred.core.BundledSignalsLib.*;
 import static mrtjp.projectred.fabrication.ProjectRedFabrication.LOGGER;
 import static mrtjp.projectred.fabrication.editor.EditorDataUtils.*;
 
-public class FabricatedGatePart extends BundledGatePart {
+public class FabricatedGatePart extends BundledGatePart implements TickableGatePart {
 
     private final ICSimulationContainer simulationContainer = new ICSimulationContainer();
     private final InterfaceSpec ifSpec = new InterfaceSpec();
@@ -56,8 +57,7 @@ public class FabricatedGatePart extends BundledGatePart {
 
         itemStackTag = EditorDataUtils.createFabricationCopy(tag);
         icName = tag.getString(KEY_IC_NAME);
-        ICFlatMap flatMap = PRFabricationEngine.instance.deserializeFlatMap(tag.getString(KEY_FLAT_MAP));
-        simulationContainer.setFlatMap(flatMap);
+        simulationContainer.setFlatMap(deserializeFlatMap(itemStackTag));
         ifSpec.loadFrom(tag, KEY_IO_SPEC);
         compileFormat = tag.getInt(KEY_COMPILE_FORMAT);
 
@@ -84,12 +84,21 @@ public class FabricatedGatePart extends BundledGatePart {
         compileFormat = tag.getInt("compile_format");
         if (compileFormat == PRFabricationEngine.COMPILE_FORMAT) {
             simulationContainer.load(tag);
+            if (!tag.contains("simulation")) {
+                LOGGER.warn("Fabricated gate has no saved simulation. Simulation state will be reset");
+                simulationContainer.setFlatMap(deserializeFlatMap(itemStackTag));
+            }
         } else {
             LOGGER.warn("Fabricated Gate compile format mismatch ({} vs {})", compileFormat, PRFabricationEngine.COMPILE_FORMAT);
         }
         ifSpec.loadFrom(tag, "io_spec");
     }
 
+    // Simulations may keep the registers and gates of their flat map, so each one gets its own
+    private static ICFlatMap deserializeFlatMap(CompoundTag itemStackTag) {
+        return PRFabricationEngine.instance.deserializeFlatMapBinary(loadFlatMapBytes(itemStackTag, KEY_FLAT_MAP));
+    }
+
     @Override
     public void writeDesc(MCDataOutput packet) {
         super.writeDesc(packet);
@@ -198,9 +207,10 @@ public class FabricatedGatePart extends BundledGatePart {
     @Override
     protected void gateLogicOnChange() {
 
-        short[] newInputs = new short[4];
-        for (int r = 0; r < 4; r++) newInputs[r] = getModeBasedInput(r);
-        int changeMask = simulationContainer.setInputs(newInputs);
+        int changeMask = 0;
+        for (int r = 0; r < 4; r++) {
+            if (simulationContainer.setInput(r, getModeBasedInput(r))) changeMask |= 1 << r;
+        }
 
         // Schedule update if inputs changed
         if (changeMask != 0) {
@@ -213,12 +223,12 @@ public class FabricatedGatePart extends BundledGatePart {
     @Override
     protected void gateLogicOnScheduledTick() {
 
-        // Push latched inputs into simulation registers
+        // Push latched inputs into simulation registers. Only changed bits are queued
         simulationContainer.pushInputs(0xF);
 
         // Run simulation
         simulationContainer.simulate();
-        int changeMask = simulationContainer.pullOutputs();
+        int changeMask = simulationContainer.pullOutputs(ifSpec.getOutputMask());
         if (changeMask != 0) {
             setState(state() & 0xF | getModeBasedOutputStateMask() << 4);
             onOutputChange(changeMask);
@@ -239,7 +249,7 @@ public class FabricatedGatePart extends BundledGatePart {
 
             // Run simulation
             simulationContainer.simulate();
-            int changeMask = simulationContainer.pullOutputs();
+            int changeMask = simulationContainer.pullOutputs(ifSpec.getOutputMask());
             if (changeMask != 0) {
                 setState(state() & 0xF | getModeBasedOutputStateMask() << 4);
                 onOutputChange(changeMask);
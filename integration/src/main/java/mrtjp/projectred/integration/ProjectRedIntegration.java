@@ -7,6 +7,7 @@ import mrtjp.projectred.integration.data.IntegrationRecipeProvider;
 import mrtjp.projectred.integration.init.IntegrationClientInit;
 import mrtjp.projectred.integration.init.IntegrationCreativeModeTabs;
 import mrtjp.projectred.integration.init.IntegrationParts;
+import mrtjp.projectred.integration.part.GateTickScheduler;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.data.DataGenerator;
@@ -18,6 +19,7 @@ import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.common.data.ExistingFileHelper;
 import net.neoforged.neoforge.data.event.GatherDataEvent;
 import net.neoforged.neoforge.registries.DeferredRegister;
@@ -62,6 +64,10 @@ public class ProjectRedIntegration {
         ITEMS.register(modEventBus);
         PART_TYPES.register(modEventBus);
         CREATIVE_TABS.register(modEventBus);
+
+        // GateTickScheduler hooks
+        NeoForge.EVENT_BUS.addListener(GateTickScheduler::onLevelTick);
+        NeoForge.EVENT_BUS.addListener(GateTickScheduler::onLevelUnload);
     }
 
     public static ModContainer getContainer() {
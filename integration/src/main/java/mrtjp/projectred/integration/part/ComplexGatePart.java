@@ -333,7 +333,10 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
 
         @Override
         protected void gateLogicOnWorldLoad() {
-            if (pointer_start >= 0) pointer_start = level().getGameTime() - pointer_start;
+            if (pointer_start >= 0) {
+                pointer_start = level().getGameTime() - pointer_start;
+                schedulePointerWakeup();
+            }
         }
         //endregion
 
@@ -375,27 +378,39 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
             if (t != pointer_max) { //TODO check this, should be - 2 here i think
                 pointer_max = t - 2;
                 sendPointerMaxUpdate();
+                if (pointer_start >= 0) schedulePointerWakeup();
             }
         }
         //endregion
 
         //region Gate logic
+        /*
+         * Pointer expiry is known as soon as the pointer starts, so instead of polling every tick, the server
+         * schedules a single wake-up for it. Clients animate the pointer from the synced start time.
+         */
         @Override
-        protected void gateLogicOnTick() {
+        protected void gateLogicOnWakeup() {
             if (pointer_start >= 0) {
                 if (level().getGameTime() >= pointer_start + pointer_max) {
                     pointerTick();
-                } else if (pointer_start > level().getGameTime()) {
-                    pointer_start = level().getGameTime();
+                } else {
+                    schedulePointerWakeup(); // Timer max changed since scheduled
                 }
             }
         }
 
+        private void schedulePointerWakeup() {
+            scheduleWakeup(pointer_start + pointer_max);
+        }
+
         protected void startPointer() {
             if (pointer_start < 0) {
                 pointer_start = level().getGameTime();
                 tile().setChanged();
-                if (!level().isClientSide) sendPointerUpdate();
+                if (!level().isClientSide) {
+                    sendPointerUpdate();
+                    schedulePointerWakeup();
+                }
             }
         }
 
@@ -403,7 +418,10 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
             if (pointer_start >= 0) {
                 pointer_start = -1;
                 tile().setChanged();
-                if (!level().isClientSide) sendPointerUpdate();
+                if (!level().isClientSide) {
+                    sendPointerUpdate();
+                    cancelWakeup();
+                }
             }
         }
 
@@ -423,7 +441,8 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
 
         @Override
         public int pointerValue() {
-            return pointer_start < 0 ? 0 : (int) (level().getGameTime() - pointer_start);
+            // Clients hold the pointer at max until the server resets it
+            return pointer_start < 0 ? 0 : (int) Math.min(level().getGameTime() - pointer_start, pointer_max);
         }
         //endregion
 
@@ -560,6 +579,7 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
             if (t != pointer_max) {
                 pointer_max = t;
                 sendPointerMaxUpdate();
+                updateSequence();
             }
         }
         //endregion
@@ -589,6 +609,7 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
 
         @Override
         protected void gateLogicOnChange() {
+            updateSequence(); // Output may be stale after shape change
         }
 
         @Override
@@ -596,17 +617,32 @@ public abstract class ComplexGatePart extends RedstoneGatePart {
         }
 
         @Override
-        protected void gateLogicOnTick() {
-            if (level().isClientSide) return;
+        protected void gateLogicOnWorldLoad() {
+            if (!level().isClientSide) scheduleWakeup(level().getGameTime()); // Catch up on next tick
+        }
 
+        @Override
+        protected void gateLogicOnWakeup() {
+            updateSequence();
+        }
+
+        /*
+         * Output steps every pointer_max ticks of day time. Instead of polling, the server wakes up at the
+         * next step boundary, assuming day time advances one per tick. If day time jumps or stops, the
+         * output is corrected at the following wake-up.
+         */
+        private void updateSequence() {
+            long dayTime = level().getDayTime();
             int oldOut = state() >> 4;
-            int out = 1 << level().getDayTime() % (pointer_max * 4L) / pointer_max;
+            int out = 1 << dayTime % (pointer_max * 4L) / pointer_max;
             if (shape() == 1) out = flipMaskZ(out);
             if (oldOut != out) {
                 setState(out << 4);
                 onOutputChange(0xF);
                 tickSound();
             }
+
+            scheduleWakeup(level().getGameTime() + pointer_max - dayTime % pointer_max);
         }
 
         @Override
@@ -45,7 +45,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Consumer;
 
-public abstract class GatePart extends BaseMultipart implements IConnectableFacePart, IOrientableFacePart, TickablePart, FacePart, NormalOcclusionPart, IconHitEffectsPart, IGateRenderData {
+public abstract class GatePart extends BaseMultipart implements IConnectableFacePart, IOrientableFacePart, FacePart, NormalOcclusionPart, IconHitEffectsPart, IGateRenderData {
 
     private static final int KEY_UPDATE = 0;
     private static final int KEY_ORIENTATION = 1;
@@ -78,6 +78,8 @@ public abstract class GatePart extends BaseMultipart implements IConnectableFace
     private byte gateShape = 0;
     private int connMap = 0;
     private long scheduledTime = 0;
+    private long wakeTime = -1;
+    private long wheelTime = -1; // Time this gate is queued for in the GateTickScheduler, or -1
 
     public GatePart(GateType type) {
         this.type = type;
@@ -263,11 +265,24 @@ public abstract class GatePart extends BaseMultipart implements IConnectableFace
     @Override
     public void onRemoved() {
         super.onRemoved();
+        wheelTime = -1;
         if (!level().isClientSide) {
             notifyAllExternals();
         }
     }
 
+    @Override
+    public void onWorldJoin() {
+        super.onWorldJoin();
+        requeue();
+    }
+
+    @Override
+    public void onWorldSeparate() {
+        super.onWorldSeparate();
+        wheelTime = -1;
+    }
+
     @Override
     public void onChunkLoad(LevelChunk chunk) {
         super.onChunkLoad(chunk);
@@ -309,7 +324,23 @@ public abstract class GatePart extends BaseMultipart implements IConnectableFace
      */
     @Override
     public void scheduleTick(int ticks) {
-        if (scheduledTime < 0) scheduledTime = level().getGameTime() + ticks;
+        if (scheduledTime < 0) {
+            scheduledTime = level().getGameTime() + ticks;
+            requeue();
+        }
+    }
+
+    /**
+     * Schedules a call to {@link #gateLogicOnWakeup()} at the given game time, replacing any previous wake-up.
+     * Unlike scheduled ticks, wake-ups are not saved. Gates must re-schedule them on world load.
+     */
+    protected void scheduleWakeup(long time) {
+        wakeTime = time;
+        requeue();
+    }
+
+    protected void cancelWakeup() {
+        wakeTime = -1;
     }
 
     public boolean isTickScheduled() {
@@ -323,12 +354,39 @@ public abstract class GatePart extends BaseMultipart implements IConnectableFace
         }
     }
 
-    @Override
-    public void tick() {
-        if (!level().isClientSide) {
-            processScheduled();
+    private void processWakeup() {
+        if (wakeTime >= 0 && level().getGameTime() >= wakeTime) {
+            wakeTime = -1;
+            gateLogicOnWakeup();
         }
-        gateLogicOnTick();
+    }
+
+    private void requeue() {
+        if (!hasTile() || level().isClientSide) return;
+
+        long next = scheduledTime < 0 ? wakeTime : wakeTime < 0 ? scheduledTime : Math.min(scheduledTime, wakeTime);
+        // If already queued earlier, that entry will fire first and requeue for the rest
+        if (next >= 0 && (wheelTime < 0 || next < wheelTime)) {
+            wheelTime = GateTickScheduler.getInstance(level()).schedule(this, next);
+        }
+    }
+
+    long getWheelTime() {
+        return wheelTime;
+    }
+
+    // Called by GateTickScheduler when the queued time is reached
+    void onWheelTick(long time) {
+        // Hold scheduled ticks while the chunk is not block-ticking (i.e. lazy border chunks)
+        if (!level().shouldTickBlocksAt(pos())) {
+            wheelTime = GateTickScheduler.getInstance(level()).schedule(this, time + 1);
+            return;
+        }
+
+        wheelTime = -1;
+        processScheduled();
+        processWakeup();
+        requeue();
     }
     //endregion
 
@@ -489,9 +547,13 @@ public abstract class GatePart extends BaseMultipart implements IConnectableFace
         return false;
     }
 
+    // Only called on gates that implement TickableGatePart
     protected void gateLogicOnTick() {
     }
 
+    protected void gateLogicOnWakeup() {
+    }
+
     protected void gateLogicSetup() {
     }
 
@@ -0,0 +1,134 @@
+package mrtjp.projectred.integration.part;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.event.TickEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Per-level hierarchical timing wheel that owns gate scheduled ticks.
+ * <p>
+ * Level 0 has one slot per tick. Each higher level has slots that span a full rotation of the level below it.
+ * When a higher-level slot comes due, its gates are cascaded down into finer slots. Gates that are not scheduled
+ * are not held by the wheel at all, so idle gates cost nothing per tick.
+ * <p>
+ * Entries are not removed on cancel. Instead, each entry is checked against the gate's current wheel time
+ * when its slot fires, and dropped if they no longer match.
+ */
+public class GateTickScheduler {
+
+    private static final IdentityHashMap<ResourceKey<Level>, GateTickScheduler> SERVER_INSTANCE = new IdentityHashMap<>();
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4; // Covers 2^24 ticks before entries need to be re-cascaded
+
+    @SuppressWarnings("unchecked")
+    private final ArrayList<Entry>[][] wheel = new ArrayList[LEVELS][SLOTS];
+
+    // Last tick that was processed
+    private long currentTime;
+
+    private GateTickScheduler(long time) {
+        this.currentTime = time - 1;
+        for (int l = 0; l < LEVELS; l++) {
+            for (int s = 0; s < SLOTS; s++) {
+                wheel[l][s] = new ArrayList<>();
+            }
+        }
+    }
+
+    static GateTickScheduler getInstance(Level level) {
+        assert !level.isClientSide;
+        return SERVER_INSTANCE.computeIfAbsent(level.dimension(), k -> new GateTickScheduler(level.getGameTime()));
+    }
+
+    //region Events
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && !event.level.isClientSide) {
+            GateTickScheduler scheduler = SERVER_INSTANCE.get(event.level.dimension());
+            if (scheduler != null) {
+                scheduler.advanceTo(event.level.getGameTime());
+            }
+        }
+    }
+
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide) {
+            SERVER_INSTANCE.remove(level.dimension());
+        }
+    }
+    //endregion
+
+    /**
+     * Adds the gate to the wheel for the given time. Times that have already been processed are
+     * clamped to the next tick.
+     *
+     * @return The time the gate was actually scheduled for
+     */
+    long schedule(GatePart gate, long time) {
+        time = Math.max(time, currentTime + 1);
+        insert(new Entry(time, gate));
+        return time;
+    }
+
+    private void insert(Entry e) {
+        // Find lowest level where entry shares the current rotation of the level above
+        for (int l = 0; l < LEVELS; l++) {
+            int shift = SLOT_BITS * (l + 1);
+            if (e.time >> shift == currentTime >> shift) {
+                wheel[l][(int) (e.time >> (SLOT_BITS * l)) & SLOT_MASK].add(e);
+                return;
+            }
+        }
+
+        // Beyond wheel range. Park it in the top level, where it will be re-inserted on each cascade
+        wheel[LEVELS - 1][(int) (e.time >> (SLOT_BITS * (LEVELS - 1))) & SLOT_MASK].add(e);
+    }
+
+    private void advanceTo(long time) {
+        while (currentTime < time) {
+            currentTime++;
+
+            // Cascade higher levels whose slot just came due
+            for (int l = 1; l < LEVELS; l++) {
+                int shift = SLOT_BITS * l;
+                if ((currentTime & ((1L << shift) - 1)) != 0) break;
+                cascade(l, (int) (currentTime >> shift) & SLOT_MASK);
+            }
+
+            fire(wheel[0][(int) currentTime & SLOT_MASK]);
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        ArrayList<Entry> entries = wheel[level][slot];
+        if (entries.isEmpty()) return;
+
+        wheel[level][slot] = new ArrayList<>();
+        for (Entry e : entries) {
+            if (e.isValid()) insert(e);
+        }
+    }
+
+    private void fire(ArrayList<Entry> entries) {
+        // Scheduled ticks may schedule again, but never for the current tick, so this slot isn't modified
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            if (e.isValid()) {
+                e.gate.onWheelTick(e.time);
+            }
+        }
+        entries.clear();
+    }
+
+    private record Entry(long time, GatePart gate) {
+        boolean isValid() {
+            return gate.getWheelTime() == time;
+        }
+    }
+}
@@ -521,7 +521,7 @@ public abstract class SimpleGatePart extends RedstoneGatePart {
         }
     }
 
-    public static class LightSensor extends SimpleGatePart {
+    public static class LightSensor extends SimpleGatePart implements TickableGatePart {
 
         public LightSensor(GateType type) {
             super(type);
@@ -588,7 +588,7 @@ public abstract class SimpleGatePart extends RedstoneGatePart {
         }
     }
 
-    public static class RainSensor extends SimpleGatePart {
+    public static class RainSensor extends SimpleGatePart implements TickableGatePart {
 
         public RainSensor(GateType type) {
             super(type);
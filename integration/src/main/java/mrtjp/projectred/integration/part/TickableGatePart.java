@@ -0,0 +1,15 @@
+package mrtjp.projectred.integration.part;
+
+import codechicken.multipart.api.part.TickablePart;
+
+/**
+ * Gates with per-tick logic in {@link GatePart#gateLogicOnTick()}. Scheduled ticks are driven by the
+ * {@link GateTickScheduler}, so all other gates don't tick at all. Only for use on {@link GatePart} subclasses.
+ */
+public interface TickableGatePart extends TickablePart {
+
+    @Override
+    default void tick() {
+        ((GatePart) this).gateLogicOnTick();
+    }
+}
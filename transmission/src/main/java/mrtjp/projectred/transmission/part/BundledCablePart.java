@@ -7,6 +7,7 @@ import mrtjp.projectred.api.IConnectable;
 import mrtjp.projectred.api.IMaskedBundledTile;
 import mrtjp.projectred.core.BundledSignalsLib;
 import mrtjp.projectred.core.FaceLookup;
+import mrtjp.projectred.core.PackedBundledSignal;
 import mrtjp.projectred.core.RedstonePropagator;
 import mrtjp.projectred.core.part.IConnectableFacePart;
 import mrtjp.projectred.core.part.IPropagationFacePart;
@@ -15,17 +16,15 @@ import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
 import java.util.Objects;
 
-import static mrtjp.projectred.core.BundledSignalsLib.raiseSignal;
 import static mrtjp.projectred.core.RedstonePropagator.FORCE;
 import static mrtjp.projectred.core.RedstonePropagator.RISING;
 
 public class BundledCablePart extends BaseFaceWirePart implements IBundledCablePart, IBundledPropagationPart, IPropagationFacePart {
 
-    private final byte[] signal = new byte[16];
-    private final byte[] tmpSignal = new byte[16]; // Used when re-calculating new signal
+    private final PackedBundledSignal signal = new PackedBundledSignal();
+    private final PackedBundledSignal tmpSignal = new PackedBundledSignal(); // Used when re-calculating new signal
 
     private int colourPropagationMask = 0xFFFF;
 
@@ -35,19 +34,10 @@ public class BundledCablePart extends BaseFaceWirePart implements IBundledCableP
 
     //region Trait variables
     @Override
-    public byte[] getSignal() {
+    public PackedBundledSignal getSignal() {
         return signal;
     }
 
-    @Override
-    public void setSignal(@Nullable byte[] signal) {
-        if (signal == null) {
-            Arrays.fill(this.signal, (byte) 0);
-        } else {
-            System.arraycopy(signal, 0, this.signal, 0, 16);
-        }
-    }
-
     @Override
     public int getColorMask() {
         return colourPropagationMask;
@@ -63,13 +53,13 @@ public class BundledCablePart extends BaseFaceWirePart implements IBundledCableP
     @Override
     public void save(CompoundTag tag) {
         super.save(tag);
-        tag.putByteArray("signal", signal);
+        tag.putByteArray("signal", signal.toByteArray().clone());
     }
 
     @Override
     public void load(CompoundTag tag) {
         super.load(tag);
-        setSignal(tag.getByteArray("signal"));
+        signal.set(tag.getByteArray("signal"));
     }
     //endregion
 
@@ -136,7 +126,7 @@ public class BundledCablePart extends BaseFaceWirePart implements IBundledCableP
     //region IBundledEmitter and IBundledCablePart overrides
     @Override
     public @Nullable byte[] getBundledSignal(int dir) {
-        return maskConnects(dir) ? signal : null;
+        return maskConnects(dir) ? signal.toByteArray() : null;
     }
 
     @Override
@@ -144,7 +134,7 @@ public class BundledCablePart extends BaseFaceWirePart implements IBundledCableP
     }
 
     @Override
-    public byte[] getBundledSignal() {
+    public PackedBundledSignal getPackedBundledSignal() {
         return signal;
     }
 
@@ -156,8 +146,8 @@ public class BundledCablePart extends BaseFaceWirePart implements IBundledCableP
 
     //region Signal recalculation
     @Override
-    public byte[] calculateSignal() {
-        Arrays.fill(tmpSignal, (byte) 0);
+    public PackedBundledSignal calculateSignal() {
+        tmpSignal.clear();
 
         for (int r = 0; r < 4; r++) {
             if (maskConnectsCorner(r)) {
@@ -199,27 +189,24 @@ public class BundledCablePart extends BaseFaceWirePart implements IBundledCableP
     protected void resolveSignal(FaceLookup lookup) {
 
         if (lookup.part instanceof IBundledCablePart) {
-            byte[] signalIn = ((IBundledCablePart) lookup.part).getBundledSignal();
-            for (int i = 0; i < 16; i++) {
-                tmpSignal[i] = (byte) Math.max(tmpSignal[i] & 0xFF, (signalIn[i] & 0xFF) - 1);
-            }
+            tmpSignal.raiseDiminished(((IBundledCablePart) lookup.part).getPackedBundledSignal());
 
         } else if (lookup.part instanceof IInsulatedRedwirePart insulatedWire) {
             int c = insulatedWire.getInsulatedColour();
             int signalIn = insulatedWire.getRedwireSignal(lookup.otherRotation);
-            tmpSignal[c] = (byte) Math.max(tmpSignal[c] & 0xFF, signalIn - 1);
+            tmpSignal.raiseColour(c, signalIn - 1);
 
         } else if (lookup.part instanceof IBundledEmitter) {
             byte[] signalIn = ((IBundledEmitter) lookup.part).getBundledSignal(lookup.otherRotation);
-            raiseSignal(tmpSignal, signalIn);
+            tmpSignal.raise(signalIn);
 
         } else if (lookup.tile instanceof IBundledTile) {
             byte[] signalIn = ((IBundledTile) lookup.tile).getBundledSignal(Rotation.rotateSide(lookup.otherSide, lookup.otherRotation));
-            raiseSignal(tmpSignal, signalIn);
+            tmpSignal.raise(signalIn);
 
         } else if (lookup.tile != null) {
             byte[] externalSignal = BundledSignalsLib.getBundledSignalViaInteraction(Objects.requireNonNull(lookup.tile.getLevel()), lookup.tile.getBlockPos(), Direction.values()[Rotation.rotateSide(lookup.otherSide, lookup.otherRotation)]);
-            raiseSignal(tmpSignal, externalSignal);
+            tmpSignal.raise(externalSignal);
         }
     }
     //endregion
@@ -81,6 +81,13 @@ public abstract class FacePowerWire extends BaseFaceWirePart implements IPowerCo
         super.maskChangeEvent(internalChange, externalChange);
         // Invalidate even if conns have not changed (adjacent conductors may have moved, etc)
         cacheInvalid = true;
+        getConductor(0).invalidateNetwork();
+    }
+
+    @Override
+    public void onWorldSeparate() {
+        super.onWorldSeparate();
+        getConductor(0).invalidateNetwork();
     }
 
     @Override
@@ -6,6 +6,7 @@ import mrtjp.projectred.api.IConnectable;
 import mrtjp.projectred.api.IMaskedBundledTile;
 import mrtjp.projectred.core.BundledSignalsLib;
 import mrtjp.projectred.core.CenterLookup;
+import mrtjp.projectred.core.PackedBundledSignal;
 import mrtjp.projectred.core.RedstonePropagator;
 import mrtjp.projectred.core.part.IPropagationCenterPart;
 import mrtjp.projectred.transmission.WireType;
@@ -13,17 +14,15 @@ import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
 import java.util.Objects;
 
-import static mrtjp.projectred.core.BundledSignalsLib.raiseSignal;
 import static mrtjp.projectred.core.RedstonePropagator.FORCE;
 import static mrtjp.projectred.core.RedstonePropagator.RISING;
 
 public class FramedBundledCablePart extends BaseCenterWirePart implements IBundledCablePart, IBundledPropagationPart, IPropagationCenterPart {
 
-    private final byte[] signal = new byte[16];
-    private final byte[] tmpSignal = new byte[16]; // Used when re-calculating new signal
+    private final PackedBundledSignal signal = new PackedBundledSignal();
+    private final PackedBundledSignal tmpSignal = new PackedBundledSignal(); // Used when re-calculating new signal
 
     private int colourPropagationMask = 0xFFFF;
 
@@ -33,19 +32,10 @@ public class FramedBundledCablePart extends BaseCenterWirePart implements IBundl
 
     //region Trait variables
     @Override
-    public byte[] getSignal() {
+    public PackedBundledSignal getSignal() {
         return signal;
     }
 
-    @Override
-    public void setSignal(@Nullable byte[] signal) {
-        if (signal == null) {
-            Arrays.fill(this.signal, (byte) 0);
-        } else {
-            System.arraycopy(signal, 0, this.signal, 0, 16);
-        }
-    }
-
     @Override
     public int getColorMask() {
         return colourPropagationMask;
@@ -61,13 +51,13 @@ public class FramedBundledCablePart extends BaseCenterWirePart implements IBundl
     @Override
     public void save(CompoundTag tag) {
         super.save(tag);
-        tag.putByteArray("signal", signal);
+        tag.putByteArray("signal", signal.toByteArray().clone());
     }
 
     @Override
     public void load(CompoundTag tag) {
         super.load(tag);
-        setSignal(tag.getByteArray("signal"));
+        signal.set(tag.getByteArray("signal"));
     }
     //endregion
 
@@ -116,7 +106,7 @@ public class FramedBundledCablePart extends BaseCenterWirePart implements IBundl
     //region IBundledEmitter and IBundledCablePart overrides
     @Override
     public @Nullable byte[] getBundledSignal(int dir) {
-        return maskConnects(dir) ? signal : null;
+        return maskConnects(dir) ? signal.toByteArray() : null;
     }
 
     @Override
@@ -124,7 +114,7 @@ public class FramedBundledCablePart extends BaseCenterWirePart implements IBundl
     }
 
     @Override
-    public byte[] getBundledSignal() {
+    public PackedBundledSignal getPackedBundledSignal() {
         return signal;
     }
 
@@ -136,8 +126,8 @@ public class FramedBundledCablePart extends BaseCenterWirePart implements IBundl
 
     //region Signal recalculation
     @Override
-    public byte[] calculateSignal() {
-        Arrays.fill(tmpSignal, (byte) 0);
+    public PackedBundledSignal calculateSignal() {
+        tmpSignal.clear();
 
         for (int s = 0; s < 6; s++) {
 
@@ -164,27 +154,24 @@ public class FramedBundledCablePart extends BaseCenterWirePart implements IBundl
     protected void resolveSignal(CenterLookup lookup) {
 
         if (lookup.part instanceof IBundledCablePart) {
-            byte[] signalIn = ((IBundledCablePart) lookup.part).getBundledSignal();
-            for (int i = 0; i < 16; i++) {
-                tmpSignal[i] = (byte) Math.max(tmpSignal[i] & 0xFF, (signalIn[i] & 0xFF) - 1);
-            }
+            tmpSignal.raiseDiminished(((IBundledCablePart) lookup.part).getPackedBundledSignal());
 
         } else if (lookup.part instanceof IInsulatedRedwirePart insulatedWire) {
             int c = insulatedWire.getInsulatedColour();
             int signalIn = insulatedWire.getRedwireSignal(lookup.otherDirection);
-            tmpSignal[c] = (byte) Math.max(tmpSignal[c] & 0xFF, signalIn - 1);
+            tmpSignal.raiseColour(c, signalIn - 1);
 
         } else if (lookup.part instanceof IBundledEmitter) {
             byte[] signalIn = ((IBundledEmitter) lookup.part).getBundledSignal(lookup.otherDirection);
-            raiseSignal(tmpSignal, signalIn);
+            tmpSignal.raise(signalIn);
 
         } else if (lookup.tile instanceof IBundledTile) {
             byte[] signalIn = ((IBundledTile) lookup.tile).getBundledSignal(lookup.otherDirection);
-            raiseSignal(tmpSignal, signalIn);
+            tmpSignal.raise(signalIn);
 
         } else if (lookup.tile != null) {
             byte[] externalSignal = BundledSignalsLib.getBundledSignalViaInteraction(Objects.requireNonNull(lookup.tile.getLevel()), lookup.tile.getBlockPos(), Direction.values()[lookup.otherDirection]);
-            raiseSignal(tmpSignal, externalSignal);
+            tmpSignal.raise(externalSignal);
         }
     }
     //endregion
@@ -25,7 +25,7 @@ public class FramedInsulatedRedAlloyWirePart extends FramedRedwirePart implement
     @Override
     protected int resolveSignal(CenterLookup lookup) {
         if (lookup.part instanceof IBundledCablePart bundledPart) {
-            return (bundledPart.getBundledSignal()[getInsulatedColour()] & 0xFF) - 1;
+            return bundledPart.getPackedBundledSignal().get(getInsulatedColour()) - 1;
         }
         return super.resolveSignal(lookup);
     }
@@ -70,6 +70,13 @@ public abstract class FramedPowerWire extends BaseCenterWirePart implements IPow
         super.maskChangeEvent(internalChange, externalChange);
         // Invalidate even if conns have not changed (adjacent conductors may have moved, etc)
         cacheInvalid = true;
+        getConductor(0).invalidateNetwork();
+    }
+
+    @Override
+    public void onWorldSeparate() {
+        super.onWorldSeparate();
+        getConductor(0).invalidateNetwork();
     }
 
     @Override
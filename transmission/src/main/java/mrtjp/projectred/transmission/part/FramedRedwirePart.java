@@ -8,23 +8,28 @@ import codechicken.multipart.api.part.redstone.MaskedRedstonePart;
 import codechicken.multipart.api.part.redstone.RedstonePart;
 import mrtjp.projectred.api.IConnectable;
 import mrtjp.projectred.core.CenterLookup;
+import mrtjp.projectred.core.CompiledWireNetwork;
 import mrtjp.projectred.core.Configurator;
 import mrtjp.projectred.core.RedstoneCenterLookup;
 import mrtjp.projectred.core.RedstonePropagator;
+import mrtjp.projectred.core.part.ICompiledPropagationPart;
 import mrtjp.projectred.core.part.IPropagationCenterPart;
-import mrtjp.projectred.core.part.IRedstonePropagationPart;
 import mrtjp.projectred.core.part.IRedwirePart;
 import mrtjp.projectred.transmission.WireType;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import javax.annotation.Nullable;
 
 import static mrtjp.projectred.core.RedstonePropagator.FORCE;
 import static mrtjp.projectred.core.RedstonePropagator.RISING;
 
-public abstract class FramedRedwirePart extends BaseCenterWirePart implements IRedstonePropagationPart, IPropagationCenterPart, MaskedRedstonePart, IRedwirePart {
+public abstract class FramedRedwirePart extends BaseCenterWirePart implements ICompiledPropagationPart, IPropagationCenterPart, MaskedRedstonePart, IRedwirePart {
 
     private static final int KEY_SIGNAL = 10;
 
     private byte signal = 0;
+    private @Nullable CompiledWireNetwork propagationNetwork = null;
 
     public FramedRedwirePart(WireType wireType) {
         super(wireType);
@@ -70,6 +75,21 @@ public abstract class FramedRedwirePart extends BaseCenterWirePart implements IR
         sendUpdate(KEY_SIGNAL, p -> p.writeByte(signal));
     }
 
+    @Override
+    public void onChunkLoad(LevelChunk chunk) {
+        super.onChunkLoad(chunk);
+        if (!level().isClientSide) {
+            // Links into this chunk are not known to already compiled networks
+            CompiledWireNetwork.onCompiledPartLoaded(level(), chunk.getPos());
+        }
+    }
+
+    @Override
+    public void onWorldSeparate() {
+        super.onWorldSeparate();
+        CompiledWireNetwork.invalidate(this);
+    }
+
     @Override
     public void maskChangeEvent(boolean internalChange, boolean externalChange) {
         super.maskChangeEvent(internalChange, externalChange);
@@ -140,6 +160,16 @@ public abstract class FramedRedwirePart extends BaseCenterWirePart implements IR
         this.signal = (byte) signal;
     }
 
+    @Override
+    public @Nullable CompiledWireNetwork getPropagationNetwork() {
+        return propagationNetwork;
+    }
+
+    @Override
+    public void setPropagationNetwork(@Nullable CompiledWireNetwork network) {
+        this.propagationNetwork = network;
+    }
+
     @Override
     public void onSignalUpdate() {
         sendSignalUpdate();
@@ -1,10 +1,18 @@
 package mrtjp.projectred.transmission.part;
 
 import mrtjp.projectred.api.IBundledEmitter;
+import mrtjp.projectred.core.PackedBundledSignal;
 
 public interface IBundledCablePart extends IBundledEmitter {
 
-    byte[] getBundledSignal();
+    PackedBundledSignal getPackedBundledSignal();
+
+    /**
+     * Unpacked view of {@link #getPackedBundledSignal()}. Do not modify.
+     */
+    default byte[] getBundledSignal() {
+        return getPackedBundledSignal().toByteArray();
+    }
 
     int getBundledColour();
 }
@@ -1,46 +1,46 @@
 package mrtjp.projectred.transmission.part;
 
+import mrtjp.projectred.core.PackedBundledSignal;
 import mrtjp.projectred.core.RedstonePropagator;
 import mrtjp.projectred.core.part.IPropagationHooks;
 import mrtjp.projectred.core.part.IPropagationPart;
 
 import javax.annotation.Nullable;
 
-import static mrtjp.projectred.core.BundledSignalsLib.*;
 import static mrtjp.projectred.core.RedstonePropagator.*;
 
 public interface IBundledPropagationPart extends IPropagationPart, IPropagationHooks {
 
     //region Trait variables
-    byte[] getSignal();
-    void setSignal(@Nullable byte[] signal);
+    PackedBundledSignal getSignal();
     int getColorMask();
     void setColorMask(int mask);
     //endregion
 
     /**
      * Actively calculates current bundled signal based on neighbor emissions
-     * @return new bundled signals
+     * @return new bundled signals. May be a reused scratch signal owned by this part
      */
-    byte[] calculateSignal();
+    PackedBundledSignal calculateSignal();
 
     @Override
     default void updateAndPropagate(@Nullable IPropagationPart from, int mode) {
+        PackedBundledSignal signal = getSignal();
         int mask = getColorMaskFrom(from, mode);
-        if (mode == DROPPING && isSignalZero(getSignal(), mask)) return;
+        if (mode == DROPPING && signal.isZero(mask)) return;
 
-        byte[] newSignal = calculateSignal();
-        applyChangeMask(getSignal(), newSignal, mask);
+        PackedBundledSignal newSignal = calculateSignal();
+        newSignal.applyChangeMask(signal, mask);
 
         setColorMask(mask);
 
-        if (dropSignalsLessThan(getSignal(), newSignal)) {
-            if (!isSignalZero(newSignal, mask)) {
+        if (signal.dropSignalsGreaterThan(newSignal)) {
+            if (!newSignal.isZero(mask)) {
                 RedstonePropagator.propagateAnalogDrop(this);
             }
             propagateForward(from, DROPPING);
-        } else if (!signalsEqual(getSignal(), newSignal)) {
-            setSignal(newSignal);
+        } else if (!signal.signalEquals(newSignal)) {
+            signal.set(newSignal);
             if (mode == DROPPING) {
                 propagateForward(null, RISING);
             } else {
@@ -61,25 +61,13 @@ public interface IBundledPropagationPart extends IPropagationPart, IPropagationH
         }
 
         if (from instanceof IBundledCablePart && mode == DROPPING) {
-            int m = 0;
-            byte[] signalIn = ((IBundledCablePart) from).getBundledSignal();
-            for (int i = 0; i < 16; i++) {
-                if (signalIn[i] == 0) {
-                    m |= 1 << i;
-                }
-            }
-            return m;
+            // Colours that dropped to 0
+            return ~((IBundledCablePart) from).getPackedBundledSignal().getNonZeroMask() & 0xFFFF;
         }
 
         if (from instanceof IBundledCablePart && mode == RISING) {
-            int m = 0;
-            byte[] signalIn = ((IBundledCablePart) from).getBundledSignal();
-            for (int i = 0; i < 16; i++) {
-                if ((signalIn[i] & 0xFF) > (getSignal()[i] & 0xFF)) {
-                    m |= 1 << i;
-                }
-            }
-            return m;
+            // Colours that are higher than ours
+            return ((IBundledCablePart) from).getPackedBundledSignal().getGreaterMask(getSignal());
         }
 
         return 0xFFFF;
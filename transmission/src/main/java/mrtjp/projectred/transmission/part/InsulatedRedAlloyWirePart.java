@@ -27,7 +27,7 @@ public class InsulatedRedAlloyWirePart extends RedwirePart implements IInsulated
     @Override
     protected int resolveSignal(FaceLookup lookup) {
         if (lookup.part instanceof IBundledCablePart bundledPart) {
-            return (bundledPart.getBundledSignal()[getInsulatedColour()] & 0xFF) - 1;
+            return bundledPart.getPackedBundledSignal().get(getInsulatedColour()) - 1;
         }
         return super.resolveSignal(lookup);
     }
@@ -9,6 +9,7 @@ import codechicken.multipart.api.part.redstone.FaceRedstonePart;
 import codechicken.multipart.api.part.redstone.RedstonePart;
 import codechicken.multipart.trait.extern.RedstoneTile;
 import mrtjp.projectred.api.IConnectable;
+import mrtjp.projectred.core.CompiledWireNetwork;
 import mrtjp.projectred.core.Configurator;
 import mrtjp.projectred.core.FaceLookup;
 import mrtjp.projectred.core.RedstoneFaceLookup;
@@ -17,15 +18,19 @@ import mrtjp.projectred.core.part.*;
 import mrtjp.projectred.transmission.WireType;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import javax.annotation.Nullable;
 
 import static mrtjp.projectred.core.RedstonePropagator.FORCE;
 import static mrtjp.projectred.core.RedstonePropagator.RISING;
 
-public abstract class RedwirePart extends BaseFaceWirePart implements IRedstonePropagationPart, IPropagationFacePart, FaceRedstonePart, IRedwirePart {
+public abstract class RedwirePart extends BaseFaceWirePart implements ICompiledPropagationPart, IPropagationFacePart, FaceRedstonePart, IRedwirePart {
 
     private static final int KEY_SIGNAL = 10;
 
     private byte signal = 0;
+    private @Nullable CompiledWireNetwork propagationNetwork = null;
 
     public RedwirePart(WireType wireType) {
         super(wireType);
@@ -103,6 +108,21 @@ public abstract class RedwirePart extends BaseFaceWirePart implements IRedstoneP
     //endregion
 
     //region IConnectableFacePart overrides
+    @Override
+    public void onChunkLoad(LevelChunk chunk) {
+        super.onChunkLoad(chunk);
+        if (!level().isClientSide) {
+            // Links into this chunk are not known to already compiled networks
+            CompiledWireNetwork.onCompiledPartLoaded(level(), chunk.getPos());
+        }
+    }
+
+    @Override
+    public void onWorldSeparate() {
+        super.onWorldSeparate();
+        CompiledWireNetwork.invalidate(this);
+    }
+
     @Override
     public void maskChangeEvent(boolean internalChange, boolean externalChange) {
         super.maskChangeEvent(internalChange, externalChange);
@@ -160,6 +180,16 @@ public abstract class RedwirePart extends BaseFaceWirePart implements IRedstoneP
         this.signal = (byte) signal;
     }
 
+    @Override
+    public @Nullable CompiledWireNetwork getPropagationNetwork() {
+        return propagationNetwork;
+    }
+
+    @Override
+    public void setPropagationNetwork(@Nullable CompiledWireNetwork network) {
+        this.propagationNetwork = network;
+    }
+
     @Override
     public int calculateSignal() {
         RedstonePropagator.setDustProvidesPower(false);